@@ -0,0 +1,102 @@
+import java.awt.*;
+import java.awt.image.BufferStrategy;
+import java.util.concurrent.locks.LockSupport;
+
+// 主动渲染：Canvas + BufferStrategy，由独立渲染线程按刷新率绘制并翻页
+// 不经过 repaint()/EDT，绘制内容与被动模式共用 Renderer
+public class ActiveView extends Canvas implements Runnable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final StateExchange exchange;
+    private final Profiler profiler;
+    private final FrameGovernor governor;
+    private final long tickNanos;
+    private final long frameNanos;
+    private volatile boolean running;
+    private Thread thread;
+
+    public ActiveView(StateExchange exchange, Profiler profiler, FrameGovernor governor, long tickNanos, int refreshRate) {
+        this.exchange = exchange;
+        this.profiler = profiler;
+        this.governor = governor;
+        this.tickNanos = tickNanos;
+        this.frameNanos = 1_000_000_000L / refreshRate;
+        setIgnoreRepaint(true);
+        setBackground(Color.LIGHT_GRAY);
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        // 组件可显示后才能创建 BufferStrategy
+        createBufferStrategy(2);
+        requestFocusInWindow();
+        running = true;
+        thread = new Thread(this, "render");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void removeNotify() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        super.removeNotify();
+    }
+
+    @Override
+    public void run() {
+        Renderer renderer = new Renderer(getGraphicsConfiguration());
+        BufferStrategy strategy = getBufferStrategy();
+        long next = System.nanoTime();
+
+        while (running) {
+            // 跳帧档位下这个显示帧不绘制，只等到下一个
+            if (governor.frameDue()) {
+                draw(renderer, strategy);
+            }
+
+            next += frameNanos;
+            long sleep = next - System.nanoTime();
+            if (sleep > 0) {
+                LockSupport.parkNanos(this, sleep);
+            } else {
+                next = System.nanoTime(); // 跟不上时不累积欠账
+            }
+        }
+    }
+
+    private void draw(Renderer renderer, BufferStrategy strategy) {
+        RenderState state = exchange.latest();
+        float alpha = (float) (System.nanoTime() - state.simTimeNanos) / tickNanos;
+        alpha = Math.max(0f, Math.min(1f, alpha));
+        renderer.tier = governor.tier();
+
+        // 按 BufferStrategy 文档的方式处理显存内容丢失
+        long start = System.nanoTime();
+        do {
+            do {
+                Graphics2D g = (Graphics2D) strategy.getDrawGraphics();
+                try {
+                    renderer.render(g, state, alpha, getWidth(), getHeight());
+                    if (profiler.overlay) {
+                        renderer.renderOverlay(g, profiler, governor, getWidth());
+                    }
+                } finally {
+                    g.dispose();
+                }
+            } while (strategy.contentsRestored());
+            strategy.show();
+        } while (strategy.contentsLost());
+        Toolkit.getDefaultToolkit().sync();
+        governor.frameRendered(profiler.lap(Profiler.FRAME, start) - start);
+    }
+}
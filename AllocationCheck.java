@@ -0,0 +1,127 @@
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+// 分配回归检查：无头运行“模拟一帧 + 发布快照 + 离屏渲染”的完整循环，
+// 预热后用 com.sun.management.ThreadMXBean 统计本线程分配的字节数，不为 0 时以非零状态退出
+// 输入覆盖移动、开火（自动瞄准）、护盾、齐射、游戏结束后的重开和遥测录制
+//
+// 用法：java AllocationCheck [--ticks=10000] [--warmup=20000] [--no-render] [GameConfig 参数...]
+public class AllocationCheck {
+
+    public static void main(String[] args) throws IOException {
+        int ticks = GameConfig.intOption(args, "ticks", 10_000);
+        int warmup = GameConfig.intOption(args, "warmup", 20_000);
+        boolean render = !GameConfig.flag(args, "no-render");
+
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+            System.err.println("Failed to measure allocations: ThreadMXBean has no allocation counter on this JVM");
+            System.exit(2);
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        threads.setThreadAllocatedMemoryEnabled(true);
+        long self = Thread.currentThread().getId();
+
+        GameConfig config = GameConfig.fromArgs(args);
+        // 齐射和波次尽早出现，测量窗口内每种事件都会发生
+        config.volleyScore = Math.min(config.volleyScore, 1000);
+        World world = new World(config, config.seed != 0 ? config.seed : 1);
+        StateExchange exchange = new StateExchange(config);
+        Path scores = Files.createTempFile("alloc-check", ".dat");
+        Path telemetryDir = Files.createTempDirectory("alloc-check-telemetry");
+        TelemetryRecorder telemetry = new TelemetryRecorder(telemetryDir);
+        Renderer renderer = new Renderer(null);
+        BufferedImage frame = new BufferedImage(config.width, config.height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = frame.createGraphics();
+
+        try (HighScoreStore highScores = new HighScoreStore(scores)) {
+            GameLoop game = new GameLoop(world, exchange, highScores, config.tickNanos);
+            game.telemetry(telemetry);
+            Loop loop = new Loop(world, exchange, game, render ? renderer : null, g);
+            loop.run(warmup);
+            // 计数器本身第一次调用时可能分配，先调用一次
+            threads.getThreadAllocatedBytes(self);
+            int restarts = loop.restarts;
+            long shots = world.shotsFired;
+            long before = threads.getThreadAllocatedBytes(self);
+            loop.run(ticks);
+            long allocated = threads.getThreadAllocatedBytes(self) - before;
+
+            System.out.println("ticks " + ticks + ", restarts " + (loop.restarts - restarts) + ", shots fired "
+                    + (world.shotsFired - shots) + ", allocated " + allocated + " bytes");
+            if (allocated != 0) {
+                System.err.println("Failed allocation check: steady-state loop allocated " + allocated + " bytes");
+                System.exit(1);
+            }
+        } finally {
+            g.dispose();
+            telemetry.close();
+            Files.deleteIfExists(scores);
+            try (Stream<Path> files = Files.list(telemetryDir)) {
+                for (Path f : (Iterable<Path>) files::iterator) Files.deleteIfExists(f);
+            }
+            Files.deleteIfExists(telemetryDir);
+        }
+    }
+
+    // 与 GameLoop.tick() + publish() + Shoot.paintComponent() 相同的调用序列，去掉线程与定时；
+    // 推进一帧之后的排行榜与遥测处理直接调用 GameLoop.afterStep()
+    // 游戏结束后先在结束画面停留 GAME_OVER_TICKS 帧再重开，覆盖结束画面上每帧提交分数的路径
+    private static final class Loop {
+        static final int GAME_OVER_TICKS = 30;
+
+        final World world;
+        final StateExchange exchange;
+        final GameLoop game;
+        final Renderer renderer;
+        final Graphics2D g;
+        final Rng rng = new Rng(7);
+        int held;
+        long tick;
+        int gameOverTicks;
+        int restarts;
+
+        Loop(World world, StateExchange exchange, GameLoop game, Renderer renderer, Graphics2D g) {
+            this.world = world;
+            this.exchange = exchange;
+            this.game = game;
+            this.renderer = renderer;
+            this.g = g;
+        }
+
+        void run(int n) {
+            for (int i = 0; i < n; i++) {
+                // 平均每 30 帧换一次方向，每 4 帧开一次火
+                if (rng.nextDouble() < 1.0 / 30) held = (int) (rng.nextDouble() * 16);
+                int input = held;
+                if ((tick & 3) == 0) input |= World.INPUT_FIRE;
+                if (world.gameOver && ++gameOverTicks > GAME_OVER_TICKS) {
+                    input |= World.INPUT_RESTART;
+                    gameOverTicks = 0;
+                    restarts++;
+                }
+
+                long start = System.nanoTime();
+                boolean restart = (input & World.INPUT_RESTART) != 0 && world.gameOver;
+                world.step(input);
+                tick++;
+                game.afterStep(restart, start);
+
+                RenderState state = exchange.backBuffer();
+                state.capture(world);
+                state.tick = tick;
+                state.simTimeNanos = tick;
+                exchange.publish();
+
+                if (renderer != null) {
+                    renderer.render(g, exchange.latest(), 0.5f, world.width, world.height);
+                }
+            }
+        }
+    }
+}
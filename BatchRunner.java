@@ -0,0 +1,227 @@
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// 批量对局：在 ForkJoinPool 上并行跑大量独立的无头对局，统计存活时间与分数分布，用于调难度参数
+// 每个叶子任务只写自己的 Stats，合并沿任务树向上进行，全程无锁；第 i 局的种子只取决于基准种子和 i，结果可复现
+// 用法：java BatchRunner [--games=10000] [--policy=random|idle|fire|dodge] [--max-ticks=100000]
+//                        [--threads=N] [--sweep=hit-limit=10,20,30] [--hist=文件] [GameConfig 参数...]
+public class BatchRunner {
+
+    private static final String USAGE = "usage: java BatchRunner [--games=10000] [--policy=random|idle|fire|dodge]"
+            + " [--max-ticks=100000] [--threads=N] [--sweep=hit-limit=10,20,30] [--hist=file] [GameConfig options...]";
+
+    // 叶子任务的对局数
+    private static final int GAMES_PER_TASK = 8;
+    private static final int HISTOGRAM_BUCKETS = 1000;
+
+    // 一组对局的统计，按存活帧数分桶
+    static class Stats {
+        final int bucketTicks;
+        final long[] histogram = new long[HISTOGRAM_BUCKETS + 1];
+        long games;
+        long survived; // 到达帧数上限仍未结束
+        long diedCollision; // 撞上障碍物
+        long diedShot; // 被敌方子弹击中次数达到上限
+        long totalTicks;
+        long totalScore;
+        long maxTicks;
+
+        Stats(int bucketTicks) {
+            this.bucketTicks = bucketTicks;
+        }
+
+        void add(long ticks, int score, int outcome) {
+            games++;
+            totalTicks += ticks;
+            totalScore += score;
+            maxTicks = Math.max(maxTicks, ticks);
+            histogram[(int) Math.min(ticks / bucketTicks, HISTOGRAM_BUCKETS)]++;
+            switch (outcome) {
+                case SURVIVED: survived++; break;
+                case COLLISION: diedCollision++; break;
+                default: diedShot++; break;
+            }
+        }
+
+        Stats merge(Stats other) {
+            for (int i = 0; i < histogram.length; i++) histogram[i] += other.histogram[i];
+            games += other.games;
+            survived += other.survived;
+            diedCollision += other.diedCollision;
+            diedShot += other.diedShot;
+            totalTicks += other.totalTicks;
+            totalScore += other.totalScore;
+            maxTicks = Math.max(maxTicks, other.maxTicks);
+            return this;
+        }
+
+        // 第 p 百分位的存活帧数（桶上界）
+        long percentile(double p) {
+            long rank = (long) Math.ceil(p / 100 * games);
+            long seen = 0;
+            for (int i = 0; i < histogram.length; i++) {
+                seen += histogram[i];
+                if (seen >= rank && seen > 0) return Math.min((long) (i + 1) * bucketTicks, maxTicks);
+            }
+            return maxTicks;
+        }
+    }
+
+    static final int SURVIVED = 0;
+    static final int COLLISION = 1;
+    static final int SHOT = 2;
+
+    // 跑 [from, to) 范围内的对局
+    static class Games extends RecursiveTask<Stats> {
+        private static final long serialVersionUID = 1L;
+
+        final GameConfig config;
+        final String policy;
+        final long baseSeed;
+        final long maxTicks;
+        final int bucketTicks;
+        final long from, to;
+
+        Games(GameConfig config, String policy, long baseSeed, long maxTicks, int bucketTicks, long from, long to) {
+            this.config = config;
+            this.policy = policy;
+            this.baseSeed = baseSeed;
+            this.maxTicks = maxTicks;
+            this.bucketTicks = bucketTicks;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Stats compute() {
+            if (to - from <= GAMES_PER_TASK) {
+                Stats stats = new Stats(bucketTicks);
+                for (long game = from; game < to; game++) {
+                    play(game, stats);
+                }
+                return stats;
+            }
+            long mid = (from + to) >>> 1;
+            Games left = new Games(config, policy, baseSeed, maxTicks, bucketTicks, from, mid);
+            Games right = new Games(config, policy, baseSeed, maxTicks, bucketTicks, mid, to);
+            left.fork();
+            Stats stats = right.compute();
+            return stats.merge(left.join());
+        }
+
+        private void play(long game, Stats stats) {
+            long seed = gameSeed(baseSeed, game);
+            World world = new World(config, seed);
+            Policy p = Policy.create(policy, seed);
+            long ticks = 0;
+            while (!world.gameOver && ticks < maxTicks) {
+                world.step(p.input(world));
+                ticks++;
+            }
+            int outcome = !world.gameOver ? SURVIVED
+                    : world.playerHitCount >= config.hitLimit ? SHOT : COLLISION;
+            stats.add(ticks, world.score, outcome);
+        }
+    }
+
+    // 把基准种子和对局序号混合成互不相关的种子
+    static long gameSeed(long baseSeed, long game) {
+        long z = baseSeed + (game + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+        z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return z ^ (z >>> 33);
+    }
+
+    // 参数不合法：说明原因、打印用法后退出
+    private static void usage(String problem) {
+        System.err.println(problem);
+        System.err.println(USAGE);
+        System.exit(2);
+    }
+
+    public static void main(String[] args) throws IOException {
+        long games;
+        String policy;
+        long maxTicks;
+        int threads;
+        String histPath;
+        String sweep;
+        try {
+            games = GameConfig.longOption(args, "games", 10_000);
+            policy = GameConfig.option(args, "policy", "random");
+            maxTicks = GameConfig.longOption(args, "max-ticks", 100_000);
+            threads = GameConfig.intOption(args, "threads", Runtime.getRuntime().availableProcessors());
+            histPath = GameConfig.option(args, "hist", null);
+            sweep = GameConfig.option(args, "sweep", null);
+        } catch (IllegalArgumentException e) {
+            usage(e.getMessage());
+            return;
+        }
+        if (games < 1) usage("--games must be at least 1: " + games);
+        if (maxTicks < 1) usage("--max-ticks must be at least 1: " + maxTicks);
+        if (threads < 1) usage("--threads must be at least 1: " + threads);
+        String sweepKey = null;
+        long[] sweepValues = {0};
+        if (sweep != null) {
+            int e = sweep.indexOf('=');
+            if (e <= 0) usage("--sweep expects a parameter and values, e.g. --sweep=hit-limit=10,20,30: " + sweep);
+            sweepKey = sweep.substring(0, e);
+            String[] parts = sweep.substring(e + 1).split(",");
+            sweepValues = new long[parts.length];
+            try {
+                for (int i = 0; i < parts.length; i++) sweepValues[i] = Long.parseLong(parts[i].trim());
+            } catch (NumberFormatException ex) {
+                usage("invalid --sweep values: " + sweep);
+            }
+            if (!new GameConfig().set(sweepKey, 0)) usage("unknown sweep parameter: " + sweepKey);
+        }
+        try {
+            Policy.create(policy, 0); // 提前检查策略名
+        } catch (IllegalArgumentException e) {
+            usage(e.getMessage());
+        }
+        int bucketTicks = (int) Math.max(1, (maxTicks + HISTOGRAM_BUCKETS - 1) / HISTOGRAM_BUCKETS);
+
+        PrintStream hist = histPath == null ? null
+                : new PrintStream(Files.newOutputStream(Paths.get(histPath)), false, "UTF-8");
+        if (hist != null) hist.println("sweep_key,sweep_value,ticks_from,ticks_to,games");
+        System.out.println("sweep_key,sweep_value,policy,games,survived,died_collision,died_shot,"
+                + "mean_ticks,p10_ticks,p50_ticks,p90_ticks,p99_ticks,max_ticks,mean_score,seconds,games_per_sec,ticks_per_sec");
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            for (long sweepValue : sweepValues) {
+                GameConfig config = GameConfig.fromArgs(args);
+                if (sweepKey != null) config.set(sweepKey, sweepValue);
+                long baseSeed = config.seed != 0 ? config.seed : 1;
+
+                long start = System.nanoTime();
+                Stats s = pool.invoke(new Games(config, policy, baseSeed, maxTicks, bucketTicks, 0, games));
+                double seconds = (System.nanoTime() - start) / 1e9;
+
+                System.out.printf(Locale.ROOT, "%s,%s,%s,%d,%d,%d,%d,%.1f,%d,%d,%d,%d,%d,%.1f,%.2f,%.0f,%.0f%n",
+                        sweepKey == null ? "" : sweepKey, sweepKey == null ? "" : Long.toString(sweepValue), policy,
+                        s.games, s.survived, s.diedCollision, s.diedShot, (double) s.totalTicks / s.games,
+                        s.percentile(10), s.percentile(50), s.percentile(90), s.percentile(99), s.maxTicks,
+                        (double) s.totalScore / s.games, seconds, s.games / seconds, s.totalTicks / seconds);
+                if (hist != null) {
+                    for (int i = 0; i < s.histogram.length; i++) {
+                        if (s.histogram[i] == 0) continue;
+                        long lo = (long) i * bucketTicks;
+                        long hi = i == HISTOGRAM_BUCKETS ? maxTicks : lo + bucketTicks;
+                        hist.printf(Locale.ROOT, "%s,%s,%d,%d,%d%n", sweepKey == null ? "" : sweepKey,
+                                sweepKey == null ? "" : Long.toString(sweepValue), lo, hi, s.histogram[i]);
+                    }
+                }
+            }
+        } finally {
+            pool.shutdown();
+            if (hist != null) hist.close();
+        }
+    }
+}
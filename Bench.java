@@ -0,0 +1,259 @@
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+// 性能基准：整帧、各阶段、自动瞄准与离屏渲染，按障碍物数 x 子弹数参数化
+// 每个用例先预热，再做若干轮测量，同时记录每次操作的分配字节数与测量期间的 GC 次数/耗时
+// 结果输出为 CSV 或 JSON，便于跨版本对比
+// 用法：java Bench [--obstacles=20,1000] [--bullets=64,100000] [--bench=tick,move]
+//                  [--min-ms=200] [--iterations=5] [--format=csv|json] [--out=文件]
+public class Bench {
+
+    private static final String[] BENCHMARKS = {"tick", "move", "bullet_hits", "enemy_bullets", "targeting", "render"};
+    private static final int[] OBSTACLE_COUNTS = {20, 100, 1000, 10000};
+    private static final int[] BULLET_COUNTS = {64, 1024, 16384, 100000};
+
+    // 会回收实体的用例每批操作前重新摆放实体（不计时），让子弹出界、障碍物被击毁不影响后续测量
+    private static final int BATCH = 8;
+    private static final List<String> CONSUMING = List.of("tick", "bullet_hits", "enemy_bullets");
+
+    static volatile int sink;
+
+    // 被测操作
+    interface Op {
+        void run();
+    }
+
+    static class Result {
+        String benchmark;
+        int obstacles;
+        int bullets;
+        int width;
+        int height;
+        long ops;
+        double nsPerOp;
+        double nsError; // 各轮之间的标准差
+        double allocBytesPerOp;
+        long gcCount;
+        long gcMillis;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int[] obstacleCounts = GameConfig.intsOption(args, "obstacles", OBSTACLE_COUNTS);
+        int[] bulletCounts = GameConfig.intsOption(args, "bullets", BULLET_COUNTS);
+        List<String> benchmarks = List.of(GameConfig.option(args, "bench", String.join(",", BENCHMARKS)).split(","));
+        long minNanos = GameConfig.longOption(args, "min-ms", 200) * 1_000_000L;
+        int iterations = GameConfig.intOption(args, "iterations", 5);
+        String format = GameConfig.option(args, "format", "csv");
+        String out = GameConfig.option(args, "out", null);
+
+        PrintStream ps = out == null ? System.out : new PrintStream(Files.newOutputStream(Paths.get(out)), true, "UTF-8");
+        boolean json = format.equals("json");
+        if (json) {
+            ps.printf(Locale.ROOT, "{\"java\":\"%s\",\"vm\":\"%s\",\"arch\":\"%s\",\"cpus\":%d,\"timestamp\":%d,%n \"results\":[",
+                    System.getProperty("java.version"), System.getProperty("java.vm.name"), System.getProperty("os.arch"),
+                    Runtime.getRuntime().availableProcessors(), System.currentTimeMillis());
+        } else {
+            ps.println("benchmark,obstacles,bullets,width,height,ops,ns_per_op,ns_error,ops_per_sec,alloc_bytes_per_op,gc_count,gc_ms");
+        }
+
+        boolean first = true;
+        for (String benchmark : benchmarks) {
+            for (int obstacles : obstacleCounts) {
+                for (int bullets : bulletCounts) {
+                    Result r = run(benchmark, obstacles, bullets, minNanos, iterations);
+                    if (json) {
+                        ps.printf(Locale.ROOT, "%s%n  {\"benchmark\":\"%s\",\"obstacles\":%d,\"bullets\":%d,\"width\":%d,\"height\":%d,"
+                                        + "\"ops\":%d,\"ns_per_op\":%.1f,\"ns_error\":%.1f,\"ops_per_sec\":%.1f,"
+                                        + "\"alloc_bytes_per_op\":%.2f,\"gc_count\":%d,\"gc_ms\":%d}",
+                                first ? "" : ",", r.benchmark, r.obstacles, r.bullets, r.width, r.height, r.ops,
+                                r.nsPerOp, r.nsError, 1e9 / r.nsPerOp, r.allocBytesPerOp, r.gcCount, r.gcMillis);
+                    } else {
+                        ps.printf(Locale.ROOT, "%s,%d,%d,%d,%d,%d,%.1f,%.1f,%.1f,%.2f,%d,%d%n",
+                                r.benchmark, r.obstacles, r.bullets, r.width, r.height, r.ops,
+                                r.nsPerOp, r.nsError, 1e9 / r.nsPerOp, r.allocBytesPerOp, r.gcCount, r.gcMillis);
+                    }
+                    first = false;
+                }
+            }
+        }
+        if (json) {
+            ps.println("\n ]}");
+        }
+        if (out != null) ps.close();
+    }
+
+    static Result run(String benchmark, int obstacles, int bullets, long minNanos, int iterations) {
+        // 场地面积随障碍物数量线性增长，密度与默认 800x600 场地 20 个障碍物相同；
+        // 渲染固定画到 800x600 的离屏图像上，全部实体都在画面内
+        boolean render = benchmark.equals("render");
+        double scale = render ? 1 : Math.sqrt(obstacles / 20.0);
+        GameConfig config = new GameConfig(obstacles, obstacles, bullets, bullets);
+        config.width = (int) (World.DEFAULT_WIDTH * scale);
+        config.height = (int) (World.DEFAULT_HEIGHT * scale);
+        config.seed = 1;
+        World world = new World(config);
+        long seed = obstacles * 31L + bullets;
+
+        Op op;
+        switch (benchmark) {
+            case "tick":
+                op = () -> world.step(0);
+                break;
+            case "move":
+                op = world::moveObstacles;
+                break;
+            case "bullet_hits":
+                op = () -> {
+                    world.obstacleGrid.rebuild(world.obstacles, world.width, world.height);
+                    world.updatePlayerBullets();
+                };
+                break;
+            case "enemy_bullets":
+                op = world::updateEnemyBullets;
+                break;
+            case "targeting": {
+                Targeting targeting = new Targeting(3);
+                op = () -> {
+                    int n = targeting.select(world.obstacles, world.player.x, world.player.y, 3);
+                    for (int t = 0; t < n; t++) {
+                        targeting.aim(world.obstacles, targeting.targets[t], world.player.x, world.player.y,
+                                World.BULLET_SPEED, true);
+                    }
+                    sink += n;
+                };
+                break;
+            }
+            case "render": {
+                Renderer renderer = new Renderer(null);
+                RenderState state = new RenderState(config);
+                BufferedImage image = new BufferedImage(config.width, config.height, BufferedImage.TYPE_INT_RGB);
+                Graphics2D g = image.createGraphics();
+                op = () -> {
+                    state.capture(world);
+                    renderer.render(g, state, 0.5f, config.width, config.height);
+                };
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("unknown benchmark: " + benchmark);
+        }
+
+        Result result = new Result();
+        result.benchmark = benchmark;
+        result.obstacles = obstacles;
+        result.bullets = bullets;
+        result.width = config.width;
+        result.height = config.height;
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        boolean repopulate = CONSUMING.contains(benchmark);
+        populate(world, seed);
+        measure(world, op, seed, minNanos, repopulate, threads, null);
+
+        long gcCount0 = gcCount();
+        long gcMillis0 = gcMillis();
+        double[] nsPerOp = new double[iterations];
+        long[] totals = new long[3]; // 操作数、计时纳秒、分配字节
+        for (int it = 0; it < iterations; it++) {
+            long ops0 = totals[0];
+            long ns0 = totals[1];
+            measure(world, op, seed + it, minNanos, repopulate, threads, totals);
+            nsPerOp[it] = (double) (totals[1] - ns0) / (totals[0] - ops0);
+        }
+        result.gcCount = gcCount() - gcCount0;
+        result.gcMillis = gcMillis() - gcMillis0;
+        result.ops = totals[0];
+        result.nsPerOp = (double) totals[1] / totals[0];
+        result.allocBytesPerOp = (double) totals[2] / totals[0];
+        double var = 0;
+        for (double v : nsPerOp) var += (v - result.nsPerOp) * (v - result.nsPerOp);
+        result.nsError = iterations > 1 ? Math.sqrt(var / (iterations - 1)) : 0;
+        return result;
+    }
+
+    // 按批运行直到累计计时达到 minNanos；只统计批内的时间与分配
+    private static void measure(World world, Op op, long seed, long minNanos, boolean repopulate,
+                                com.sun.management.ThreadMXBean threads, long[] totals) {
+        long elapsed = 0;
+        long ops = 0;
+        long alloc = 0;
+        while (elapsed < minNanos) {
+            if (repopulate) populate(world, seed + ops);
+            long a0 = threads.getCurrentThreadAllocatedBytes();
+            long t0 = System.nanoTime();
+            for (int i = 0; i < BATCH; i++) op.run();
+            long t1 = System.nanoTime();
+            alloc += threads.getCurrentThreadAllocatedBytes() - a0;
+            elapsed += t1 - t0;
+            ops += BATCH;
+        }
+        if (totals != null) {
+            totals[0] += ops;
+            totals[1] += elapsed;
+            totals[2] += alloc;
+        }
+    }
+
+    // 把各实体池装满，位置与方向随机；玩家在场地中央并开启护盾，保证测量期间不会 Game Over
+    static void populate(World world, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        world.rng.setSeed(seed);
+        world.gameOver = false;
+        world.score = 0;
+        world.playerHitCount = 0;
+        world.protectionOn = true;
+        world.protectionEnds = Integer.MAX_VALUE;
+        world.reschedule();
+        world.player.x = world.player.px = world.width / 2f;
+        world.player.y = world.player.py = world.height / 2f;
+
+        EntityPool obs = world.obstacles;
+        obs.clear();
+        while (!obs.isFull()) {
+            int i = obs.acquire();
+            obs.place(i, (float) random.nextDouble(Math.max(world.width - World.OBSTACLE_WIDTH, 1)),
+                    (float) random.nextDouble(Math.max(world.height - World.OBSTACLE_HEIGHT, 1)));
+            obs.vx[i] = (random.nextBoolean() ? -1 : 1) * (1 + random.nextInt(3));
+            obs.vy[i] = (random.nextBoolean() ? -1 : 1) * (1 + random.nextInt(3));
+        }
+        world.obstacleCount = obs.size;
+        fillBullets(world.playerBullets, world, random);
+        fillBullets(world.enemyBullets, world, random);
+    }
+
+    private static void fillBullets(EntityPool pool, World world, SplittableRandom random) {
+        pool.clear();
+        while (!pool.isFull()) {
+            int i = pool.acquire();
+            pool.place(i, (float) random.nextDouble(world.width), (float) random.nextDouble(world.height));
+            double angle = random.nextDouble(2 * Math.PI);
+            pool.vx[i] = (float) Math.cos(angle);
+            pool.vy[i] = (float) Math.sin(angle);
+        }
+    }
+
+    private static long gcCount() {
+        long n = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            n += Math.max(gc.getCollectionCount(), 0);
+        }
+        return n;
+    }
+
+    private static long gcMillis() {
+        long n = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            n += Math.max(gc.getCollectionTime(), 0);
+        }
+        return n;
+    }
+}
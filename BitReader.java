@@ -0,0 +1,37 @@
+import java.nio.ByteBuffer;
+
+// 按位读取 BitWriter 写出的数据；数据不足时抛出 BufferUnderflowException
+public class BitReader {
+
+    private ByteBuffer in;
+    private long acc;
+    private int bits;
+
+    public void begin(ByteBuffer in) {
+        this.in = in;
+        acc = 0;
+        bits = 0;
+    }
+
+    // 读出 n 位无符号数（n <= 32）
+    public int read(int n) {
+        while (bits < n) {
+            acc |= (long) (in.get() & 0xFF) << bits;
+            bits += 8;
+        }
+        int value = (int) (acc & ((1L << n) - 1));
+        acc >>>= n;
+        bits -= n;
+        return value;
+    }
+
+    // 读出 n 位有符号数（补码）
+    public int readSigned(int n) {
+        int v = read(n);
+        return (v << (32 - n)) >> (32 - n);
+    }
+
+    public boolean readBit() {
+        return read(1) != 0;
+    }
+}
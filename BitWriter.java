@@ -0,0 +1,38 @@
+import java.nio.ByteBuffer;
+
+// 按位写入 ByteBuffer，低位在前；end() 补齐最后一个字节
+public class BitWriter {
+
+    private ByteBuffer out;
+    private long acc;
+    private int bits;
+
+    public void begin(ByteBuffer out) {
+        this.out = out;
+        acc = 0;
+        bits = 0;
+    }
+
+    // 写入 value 的低 n 位（n <= 32）
+    public void write(int value, int n) {
+        acc |= (value & ((1L << n) - 1)) << bits;
+        bits += n;
+        while (bits >= 8) {
+            out.put((byte) acc);
+            acc >>>= 8;
+            bits -= 8;
+        }
+    }
+
+    public void writeBit(boolean bit) {
+        write(bit ? 1 : 0, 1);
+    }
+
+    public void end() {
+        if (bits > 0) {
+            out.put((byte) acc);
+        }
+        acc = 0;
+        bits = 0;
+    }
+}
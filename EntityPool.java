@@ -0,0 +1,180 @@
+import java.nio.ByteBuffer;
+
+// 实体池：结构数组（SoA）存储坐标与速度，稠密存活列表 + 空闲栈
+// 生成/回收都是 O(1)，遍历只访问存活实体，运行期不产生垃圾
+public class EntityPool {
+
+    final int capacity;
+
+    // 按槽位索引的实体数据
+    final float[] x;
+    final float[] y;
+    final float[] vx;
+    final float[] vy;
+    final float[] px; // 上一帧位置，供插值渲染使用
+    final float[] py;
+    final int[] hits; // 通用计数，例如障碍物被击中次数
+
+    // 存活实体的槽位，前 size 个有效
+    final int[] live;
+    int size;
+
+    // 槽位在 live 中的位置，-1 表示空闲；向量内核按槽位扫描时用它做存活掩码
+    final int[] denseIndex;
+
+    // 空闲槽位栈
+    private final int[] free;
+    private int freeCount;
+
+    public EntityPool(int capacity) {
+        this.capacity = capacity;
+        x = new float[capacity];
+        y = new float[capacity];
+        vx = new float[capacity];
+        vy = new float[capacity];
+        px = new float[capacity];
+        py = new float[capacity];
+        hits = new int[capacity];
+        live = new int[capacity];
+        denseIndex = new int[capacity];
+        free = new int[capacity];
+        clear();
+    }
+
+    // 取一个空闲槽位并加入存活列表，池满时返回 -1
+    public int acquire() {
+        if (freeCount == 0) return -1;
+        int slot = free[--freeCount];
+        denseIndex[slot] = size;
+        live[size++] = slot;
+        x[slot] = 0;
+        y[slot] = 0;
+        vx[slot] = 0;
+        vy[slot] = 0;
+        px[slot] = 0;
+        py[slot] = 0;
+        hits[slot] = 0;
+        return slot;
+    }
+
+    // 设置新生成实体的位置，上一帧位置与当前相同（不插值）
+    public void place(int slot, float x, float y) {
+        this.x[slot] = x;
+        this.y[slot] = y;
+        this.px[slot] = x;
+        this.py[slot] = y;
+    }
+
+    // 每帧开始时记录存活实体的当前位置
+    public void savePositions() {
+        for (int k = 0; k < size; k++) {
+            int i = live[k];
+            px[i] = x[i];
+            py[i] = y[i];
+        }
+    }
+
+    // 回收槽位：用存活列表末尾的实体填补空位
+    // 倒序遍历 live 时回收当前实体是安全的
+    public void release(int slot) {
+        int d = denseIndex[slot];
+        if (d < 0) return;
+        int last = live[--size];
+        live[d] = last;
+        denseIndex[last] = d;
+        denseIndex[slot] = -1;
+        free[freeCount++] = slot;
+    }
+
+    public boolean isLive(int slot) {
+        return denseIndex[slot] >= 0;
+    }
+
+    public boolean isFull() {
+        return freeCount == 0;
+    }
+
+    // 整体复制另一个同容量池子的全部槽位，用于模拟分叉（如搜索时的草稿世界），不分配内存
+    public void copyFrom(EntityPool other) {
+        if (other.capacity != capacity) throw new IllegalArgumentException("pool capacities differ");
+        size = other.size;
+        freeCount = other.freeCount;
+        System.arraycopy(other.x, 0, x, 0, capacity);
+        System.arraycopy(other.y, 0, y, 0, capacity);
+        System.arraycopy(other.vx, 0, vx, 0, capacity);
+        System.arraycopy(other.vy, 0, vy, 0, capacity);
+        System.arraycopy(other.px, 0, px, 0, capacity);
+        System.arraycopy(other.py, 0, py, 0, capacity);
+        System.arraycopy(other.hits, 0, hits, 0, capacity);
+        System.arraycopy(other.live, 0, live, 0, capacity);
+        System.arraycopy(other.denseIndex, 0, denseIndex, 0, capacity);
+        System.arraycopy(other.free, 0, free, 0, capacity);
+    }
+
+    // 存档中一个池子占用的字节数：size、freeCount，加上 6 个 float 数组和 4 个 int 数组
+    static int snapshotBytes(int capacity) {
+        return 8 + capacity * 40;
+    }
+
+    // 按固定布局写出全部槽位（包括空闲栈和稠密索引），恢复后生成/回收顺序与存档时完全一致
+    void writeTo(ByteBuffer buf) {
+        buf.putInt(size);
+        buf.putInt(freeCount);
+        put(buf, x);
+        put(buf, y);
+        put(buf, vx);
+        put(buf, vy);
+        put(buf, px);
+        put(buf, py);
+        put(buf, hits);
+        put(buf, live);
+        put(buf, denseIndex);
+        put(buf, free);
+    }
+
+    void readFrom(ByteBuffer buf) {
+        size = buf.getInt();
+        freeCount = buf.getInt();
+        get(buf, x);
+        get(buf, y);
+        get(buf, vx);
+        get(buf, vy);
+        get(buf, px);
+        get(buf, py);
+        get(buf, hits);
+        get(buf, live);
+        get(buf, denseIndex);
+        get(buf, free);
+    }
+
+    // 批量读写数组，并把 buf 的位置移过这段数据
+    private static void put(ByteBuffer buf, float[] a) {
+        buf.asFloatBuffer().put(a);
+        buf.position(buf.position() + a.length * 4);
+    }
+
+    private static void put(ByteBuffer buf, int[] a) {
+        buf.asIntBuffer().put(a);
+        buf.position(buf.position() + a.length * 4);
+    }
+
+    private static void get(ByteBuffer buf, float[] a) {
+        buf.asFloatBuffer().get(a);
+        buf.position(buf.position() + a.length * 4);
+    }
+
+    private static void get(ByteBuffer buf, int[] a) {
+        buf.asIntBuffer().get(a);
+        buf.position(buf.position() + a.length * 4);
+    }
+
+    // 清空池子，空闲栈按槽位 0、1、2... 的顺序弹出
+    public void clear() {
+        size = 0;
+        for (int i = 0; i < capacity; i++) {
+            denseIndex[i] = -1;
+            free[i] = capacity - 1 - i;
+        }
+        freeCount = capacity;
+    }
+}
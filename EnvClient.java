@@ -0,0 +1,181 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+
+// EnvServer 的 Java 客户端：映射同一个文件，按 EnvServer 注释中的布局写请求、等结果
+// 每次请求使用下一个槽位，返回后上一次的结果在它自己的槽位里保持不变，直到 S 次请求之后被覆盖
+// main 用随机动作压测，报告每秒批次数、环境帧数和往返延迟
+//
+// 用法：java EnvClient [--file=/dev/shm/shoot-env] [--seconds=10] [--shutdown]
+public class EnvClient implements AutoCloseable {
+
+    private static final long TIMEOUT_NANOS = 10_000_000_000L;
+    private static final long CONNECT_TIMEOUT_MS = 10_000;
+
+    final int envs;
+    final int obsSize;
+    private final int slots;
+    private final int slotBytes;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final IntBuffer[] slotActions;
+    private final FloatBuffer[] slotObs;
+    private final FloatBuffer[] slotRewards;
+    private final ByteBuffer[] slotDones;
+    private long request;
+    private int slot; // 最近一次完成的请求所在槽位
+
+    public EnvClient(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long deadline = System.currentTimeMillis() + CONNECT_TIMEOUT_MS;
+        while (channel.size() < EnvServer.HEADER_BYTES || status(channel) != EnvServer.READY) {
+            if (System.currentTimeMillis() > deadline) {
+                channel.close();
+                throw new IOException("environment server not ready: " + file);
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                channel.close();
+                throw new IOException("interrupted while waiting for " + file);
+            }
+        }
+        ByteBuffer header = ByteBuffer.allocate(EnvServer.HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        channel.read(header, 0);
+        if (header.getInt(0) != EnvServer.MAGIC || header.getInt(4) != EnvServer.VERSION) {
+            channel.close();
+            throw new IOException("not an environment file (or wrong version): " + file);
+        }
+        envs = header.getInt(EnvServer.ENVS);
+        obsSize = header.getInt(EnvServer.OBS_SIZE);
+        slots = header.getInt(EnvServer.SLOTS);
+        slotBytes = header.getInt(EnvServer.SLOT_BYTES);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, EnvServer.HEADER_BYTES + (long) slots * slotBytes);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        slotActions = new IntBuffer[slots];
+        slotObs = new FloatBuffer[slots];
+        slotRewards = new FloatBuffer[slots];
+        slotDones = new ByteBuffer[slots];
+        for (int s = 0; s < slots; s++) {
+            int base = EnvServer.HEADER_BYTES + s * slotBytes;
+            slotActions[s] = EnvServer.slice(buffer, base + EnvServer.ACTIONS, 4 * envs).asIntBuffer();
+            slotObs[s] = EnvServer.slice(buffer, EnvServer.obsOffset(base, envs), 4 * envs * obsSize).asFloatBuffer();
+            slotRewards[s] = EnvServer.slice(buffer, EnvServer.rewardsOffset(base, envs, obsSize), 4 * envs)
+                    .asFloatBuffer();
+            slotDones[s] = EnvServer.slice(buffer, EnvServer.donesOffset(base, envs, obsSize), envs);
+        }
+        // 接着之前的客户端发出的请求继续编号
+        request = EnvServer.getLong(buffer, EnvServer.REQUEST);
+    }
+
+    private static int status(FileChannel channel) throws IOException {
+        ByteBuffer b = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+        channel.read(b, EnvServer.STATUS);
+        return b.getInt(0);
+    }
+
+    // 全部环境从头开始
+    public void reset() throws IOException {
+        call(EnvServer.RESET, null);
+    }
+
+    // 每个环境执行 actions[i]（World.INPUT_* 的低 5 位）并推进一帧
+    public void step(int[] actions) throws IOException {
+        call(EnvServer.STEP, actions);
+    }
+
+    private void call(int command, int[] actions) throws IOException {
+        // 服务器已退出（包括已在同一路径上重新启动、新建了文件）时不再等待，需要重新连接
+        if (EnvServer.getInt(buffer, EnvServer.STATUS) == EnvServer.CLOSED) {
+            throw new IOException("environment server closed");
+        }
+        int s = (int) (request % slots);
+        int base = EnvServer.HEADER_BYTES + s * slotBytes;
+        buffer.putInt(base, command);
+        if (actions != null) slotActions[s].put(0, actions, 0, envs);
+        request++;
+        EnvServer.putLong(buffer, EnvServer.REQUEST, request);
+        if (!EnvServer.await(buffer, EnvServer.RESPONSE, request, TIMEOUT_NANOS)) {
+            int status = EnvServer.getInt(buffer, EnvServer.STATUS);
+            throw new IOException(status == EnvServer.CLOSED ? "environment server closed"
+                    : "environment server did not answer request " + request);
+        }
+        slot = s;
+    }
+
+    // 最近一次结果：观测视图（N*D 个 float，环境 i 从 i*D 开始）、奖励和结束标志
+    public FloatBuffer observations() {
+        return slotObs[slot];
+    }
+
+    public float reward(int env) {
+        return slotRewards[slot].get(env);
+    }
+
+    public byte done(int env) {
+        return slotDones[slot].get(env);
+    }
+
+    public void copyObservations(float[] dst) {
+        slotObs[slot].get(0, dst, 0, envs * obsSize);
+    }
+
+    // 通知服务器处理完已发出的请求后退出
+    public void shutdown() {
+        if (EnvServer.getInt(buffer, EnvServer.STATUS) != EnvServer.READY) return;
+        int base = EnvServer.HEADER_BYTES + (int) (request % slots) * slotBytes;
+        buffer.putInt(base, EnvServer.CLOSE);
+        EnvServer.putLong(buffer, EnvServer.REQUEST, ++request);
+    }
+
+    // 只关闭本端的文件，服务器继续运行，可以再次连接
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path file = Paths.get(GameConfig.option(args, "file", EnvServer.defaultFile()));
+        long seconds = GameConfig.longOption(args, "seconds", 10);
+        boolean shutdown = GameConfig.flag(args, "shutdown");
+
+        try (EnvClient client = new EnvClient(file)) {
+            System.out.println("# envs=" + client.envs + " obs_size=" + client.obsSize);
+            int[] actions = new int[client.envs];
+            Rng rng = new Rng(1);
+            LatencyHistogram latency = new LatencyHistogram();
+            client.reset();
+            long batches = 0;
+            long episodes = 0;
+            long start = System.nanoTime();
+            long end = start + seconds * 1_000_000_000L;
+            long now = start;
+            while (now < end) {
+                for (int i = 0; i < actions.length; i++) actions[i] = (int) (rng.nextDouble() * 32);
+                long t = System.nanoTime();
+                client.step(actions);
+                now = System.nanoTime();
+                latency.record(now - t);
+                for (int i = 0; i < client.envs; i++) {
+                    if (client.done(i) != VecEnv.RUNNING) episodes++;
+                }
+                batches++;
+            }
+            double elapsed = (now - start) / 1e9;
+            System.out.printf(Locale.ROOT, "batches %d, episodes %d, %.0f batches/s, %.0f env steps/s, "
+                            + "round trip p50 %.1f us, p99 %.1f us%n", batches, episodes, batches / elapsed,
+                    batches * client.envs / elapsed, latency.percentile(50) / 1e3, latency.percentile(99) / 1e3);
+            if (shutdown) client.shutdown();
+        }
+    }
+}
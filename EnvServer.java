@@ -0,0 +1,229 @@
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.LockSupport;
+
+// 把一个 VecEnv 通过内存映射文件提供给本机的其他进程（例如 Python 训练脚本），没有套接字也没有序列化
+// 请求与结果都放在文件里的环形槽位中：客户端写好命令和动作后发布请求序号，服务器执行后发布完成序号
+// 两边等待对方时先自旋，再让出 CPU，最后退化为短暂 park；跨进程无法 unpark，所以 park 有上限
+//
+// 文件布局（小端序，偏移为字节）：
+//   0   magic "SENV"   4 版本   8 环境数 N   12 每个环境的观测长度 D   16 槽位数 S   20 槽位字节数
+//   24  状态：0 启动中，1 就绪，2 已关闭
+//   64  请求序号 long（客户端写）   128 完成序号 long（服务器写）
+//   192 起 S 个槽位，第 k 个请求使用槽位 k % S：
+//     +0 命令（1 reset，2 step，3 close）  +8 动作 int[N]  之后 观测 float[N*D]、奖励 float[N]、结束标志 byte[N]
+// 客户端在第 k 个请求完成之前不能发布第 k + S 个请求，也不应再读第 k 个请求的槽位；
+// 结果含义见 VecEnv（结束标志 1 为游戏结束，2 为到达帧数上限，结束的环境已自动重开）
+//
+// 用法：java EnvServer [--file=/dev/shm/shoot-env] [--envs=64] [--threads=N] [--slots=2]
+//                      [--nearest-obstacles=8] [--nearest-bullets=16] [--max-ticks=0] [GameConfig 参数...]
+public class EnvServer implements Runnable {
+
+    static final int MAGIC = 0x53454E56; // "SENV"
+    static final int VERSION = 1;
+
+    static final int ENVS = 8;
+    static final int OBS_SIZE = 12;
+    static final int SLOTS = 16;
+    static final int SLOT_BYTES = 20;
+    static final int STATUS = 24;
+    static final int REQUEST = 64; // 两个序号各占一个缓存行
+    static final int RESPONSE = 128;
+    static final int HEADER_BYTES = 192;
+
+    static final int STARTING = 0;
+    static final int READY = 1;
+    static final int CLOSED = 2;
+
+    static final int RESET = 1;
+    static final int STEP = 2;
+    static final int CLOSE = 3;
+
+    static final int ACTIONS = 8; // 槽位内动作数组的偏移
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle INTS = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+    // 等待策略：先自旋（只有一个核时自旋只会占住对方要用的核，跳过），再让出若干次，之后每次 park 这么久
+    private static final int SPIN_LIMIT = Runtime.getRuntime().availableProcessors() > 1 ? 20_000 : 0;
+    private static final int YIELD_LIMIT = 100;
+    private static final long PARK_NANOS = 50_000L;
+    private static final long IDLE_CHECK_NANOS = 500_000_000L;
+
+    private final VecEnv env;
+    private final int slots;
+    private final int slotBytes;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final IntBuffer[] slotActions;
+    private final FloatBuffer[] slotObs;
+    private final FloatBuffer[] slotRewards;
+    private final ByteBuffer[] slotDones;
+    private volatile boolean running = true;
+
+    public EnvServer(VecEnv env, Path file, int slots) throws IOException {
+        this.env = env;
+        this.slots = Math.max(1, slots);
+        slotBytes = slotBytes(env.envs, env.obsSize);
+        // 每次启动都新建文件，不截断旧文件：还映射着旧文件的客户端读到的仍是旧内容（状态为已关闭），
+        // 而不是访问截断后的映射收到 SIGBUS；新文件映射后全为 0，状态即为启动中，写好头部后才置为就绪
+        Files.deleteIfExists(file);
+        channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) this.slots * slotBytes);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        slotActions = new IntBuffer[this.slots];
+        slotObs = new FloatBuffer[this.slots];
+        slotRewards = new FloatBuffer[this.slots];
+        slotDones = new ByteBuffer[this.slots];
+        for (int s = 0; s < this.slots; s++) {
+            int base = HEADER_BYTES + s * slotBytes;
+            slotActions[s] = slice(buffer, base + ACTIONS, 4 * env.envs).asIntBuffer();
+            slotObs[s] = slice(buffer, obsOffset(base, env.envs), 4 * env.envs * env.obsSize).asFloatBuffer();
+            slotRewards[s] = slice(buffer, rewardsOffset(base, env.envs, env.obsSize), 4 * env.envs).asFloatBuffer();
+            slotDones[s] = slice(buffer, donesOffset(base, env.envs, env.obsSize), env.envs);
+        }
+
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(ENVS, env.envs);
+        buffer.putInt(OBS_SIZE, env.obsSize);
+        buffer.putInt(SLOTS, this.slots);
+        buffer.putInt(SLOT_BYTES, slotBytes);
+        LONGS.setRelease(buffer, REQUEST, 0L);
+        LONGS.setRelease(buffer, RESPONSE, 0L);
+        INTS.setRelease(buffer, STATUS, READY);
+    }
+
+    // 槽位大小按缓存行对齐
+    static int slotBytes(int envs, int obsSize) {
+        long bytes = donesOffset(0, envs, obsSize) + envs;
+        bytes = (bytes + 63) & ~63L;
+        if (bytes > Integer.MAX_VALUE / 4) throw new IllegalArgumentException("slot too large: " + bytes + " bytes");
+        return (int) bytes;
+    }
+
+    static int obsOffset(int base, int envs) {
+        return base + ACTIONS + 4 * envs;
+    }
+
+    static int rewardsOffset(int base, int envs, int obsSize) {
+        return obsOffset(base, envs) + 4 * envs * obsSize;
+    }
+
+    static int donesOffset(int base, int envs, int obsSize) {
+        return rewardsOffset(base, envs, obsSize) + 4 * envs;
+    }
+
+    static ByteBuffer slice(ByteBuffer buffer, int offset, int length) {
+        return buffer.duplicate().position(offset).limit(offset + length).slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    // 等到 offset 处的序号不小于 target；超过 timeoutNanos 仍未等到时返回 false
+    static boolean await(ByteBuffer buffer, int offset, long target, long timeoutNanos) {
+        for (int spin = 0; spin < SPIN_LIMIT; spin++) {
+            if ((long) LONGS.getAcquire(buffer, offset) >= target) return true;
+            Thread.onSpinWait();
+        }
+        for (int y = 0; y < YIELD_LIMIT; y++) {
+            if ((long) LONGS.getAcquire(buffer, offset) >= target) return true;
+            Thread.yield();
+        }
+        long deadline = System.nanoTime() + timeoutNanos;
+        while ((long) LONGS.getAcquire(buffer, offset) < target) {
+            if (System.nanoTime() - deadline >= 0) return false;
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+        return true;
+    }
+
+    static long getLong(ByteBuffer buffer, int offset) {
+        return (long) LONGS.getAcquire(buffer, offset);
+    }
+
+    static void putLong(ByteBuffer buffer, int offset, long value) {
+        LONGS.setRelease(buffer, offset, value);
+    }
+
+    static int getInt(ByteBuffer buffer, int offset) {
+        return (int) INTS.getAcquire(buffer, offset);
+    }
+
+    public void stop() {
+        running = false;
+    }
+
+    // 按顺序处理请求，直到收到 close 或被 stop()
+    @Override
+    public void run() {
+        long next = 0;
+        int[] actions = env.actions.clone();
+        try {
+            while (running) {
+                if (!await(buffer, REQUEST, next + 1, IDLE_CHECK_NANOS)) continue;
+                int s = (int) (next % slots);
+                int base = HEADER_BYTES + s * slotBytes;
+                int command = buffer.getInt(base);
+                if (command == CLOSE) {
+                    running = false;
+                } else if (command == RESET) {
+                    env.reset();
+                } else if (command == STEP) {
+                    slotActions[s].get(0, actions);
+                    env.step(actions);
+                } else {
+                    System.err.println("Failed to handle environment request " + next + ": unknown command " + command);
+                }
+                if (command == RESET || command == STEP) {
+                    slotObs[s].put(0, env.obs);
+                    slotRewards[s].put(0, env.rewards);
+                    slotDones[s].put(0, env.dones);
+                }
+                next++;
+                putLong(buffer, RESPONSE, next);
+            }
+        } finally {
+            INTS.setRelease(buffer, STATUS, CLOSED);
+            try {
+                channel.close();
+            } catch (IOException e) {
+                System.err.println("Failed to close environment file: " + e.getMessage());
+            }
+        }
+    }
+
+    // 默认放在 /dev/shm（内存文件系统），没有时放在当前目录
+    static String defaultFile() {
+        return Files.isDirectory(Paths.get("/dev/shm")) ? "/dev/shm/shoot-env" : "shoot-env";
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path file = Paths.get(GameConfig.option(args, "file", defaultFile()));
+        int envs = GameConfig.intOption(args, "envs", 64);
+        int threads = GameConfig.intOption(args, "threads", Runtime.getRuntime().availableProcessors());
+        int slots = GameConfig.intOption(args, "slots", 2);
+        int obstacles = GameConfig.intOption(args, "nearest-obstacles", VecEnv.DEFAULT_OBSTACLES);
+        int bullets = GameConfig.intOption(args, "nearest-bullets", VecEnv.DEFAULT_BULLETS);
+        int maxTicks = GameConfig.intOption(args, "max-ticks", 0);
+        GameConfig config = GameConfig.fromArgs(args);
+        VecEnv env = new VecEnv(config, envs, config.seed != 0 ? config.seed : 1, threads, obstacles, bullets);
+        env.maxTicks = maxTicks;
+        env.reset();
+        EnvServer server = new EnvServer(env, file, slots);
+        System.out.println("Serving " + envs + " environments (observation size " + env.obsSize + ", " + slots
+                + " slots) on " + file);
+        server.run();
+    }
+}
@@ -0,0 +1,153 @@
+import java.lang.management.ManagementFactory;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+// 帧节奏调节：按最近的绘制耗时和模拟耗时占各自预算的比例，在画质档位之间自动升降
+// 超出预算一段时间就降一档，余量充足并持续两秒才升一档，每次调整后先观察一会儿，避免来回抖动
+// 最后两档只跳过显示帧，模拟仍按固定步长运行；只由绘制线程（被动模式下为 EDT）调用
+public class FrameGovernor implements FrameGovernorMXBean {
+
+    static final int FULL = 0; // 质量优先的渲染提示与抗锯齿，插值，HUD 随分数重绘
+    static final int FAST_HINTS = 1; // 速度优先的渲染提示，关闭抗锯齿，HUD 最多每 250ms 重绘一次
+    static final int NO_INTERPOLATION = 2; // 直接画最新一帧的位置，不做插值
+    static final int SIMPLE_BULLETS = 3; // 子弹画成不透明小方块，不做 alpha 混合
+    static final int HALF_RATE = 4; // 每两个显示帧绘制一次
+    static final int THIRD_RATE = 5; // 每三个显示帧绘制一次
+    static final String[] TIER_NAMES = {"full", "fast-hints", "no-interpolation", "simple-bullets", "half-rate", "third-rate"};
+
+    private static final double HIGH = 0.85; // 超过这个占用比例视为超预算
+    private static final double LOW = 0.4; // 低于它视为有余量；必须小于 HIGH 的一半，否则跳帧档位会来回切换
+    private static final long DOWNGRADE_NANOS = 150_000_000L;
+    private static final long UPGRADE_NANOS = 2_000_000_000L;
+    private static final long SETTLE_NANOS = 500_000_000L; // 调整后至少观察这么久
+    private static final double SMOOTHING = 0.1; // 指数滑动平均的权重
+
+    private final long frameNanos;
+    private final long tickNanos;
+    private final Profiler profiler; // 可以为 null，此时只看绘制耗时
+
+    private volatile int tier;
+    private volatile int pinnedTier = -1;
+    private volatile double frameUsage;
+    private volatile double tickUsage;
+    private volatile long rendered;
+    private volatile long dropped;
+    private volatile long changes;
+
+    private long frameIndex;
+    private long overSince = -1;
+    private long underSince = -1;
+    private long changedAt;
+
+    public FrameGovernor(long frameNanos, long tickNanos, Profiler profiler) {
+        this.frameNanos = frameNanos;
+        this.tickNanos = tickNanos;
+        this.profiler = profiler;
+        changedAt = System.nanoTime();
+    }
+
+    // 注册为平台 MBean，失败时只打印提示
+    public void register() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName("Shoot:type=FrameGovernor"));
+        } catch (JMException e) {
+            System.err.println("Failed to register frame governor MBean: " + e.getMessage());
+        }
+    }
+
+    public int tier() {
+        return tier;
+    }
+
+    // 每个显示帧调用一次，返回这一帧是否绘制
+    public boolean frameDue() {
+        int stride = stride(tier);
+        if (frameIndex++ % stride == 0) return true;
+        dropped++;
+        return false;
+    }
+
+    private static int stride(int tier) {
+        return tier >= THIRD_RATE ? 3 : tier >= HALF_RATE ? 2 : 1;
+    }
+
+    // 绘制完一帧后调用，renderNanos 为这一帧的绘制耗时
+    public void frameRendered(long renderNanos) {
+        long now = System.nanoTime();
+        rendered++;
+        frameUsage += SMOOTHING * ((double) renderNanos / (frameNanos * stride(tier)) - frameUsage);
+        if (profiler != null) {
+            tickUsage += SMOOTHING * ((double) profiler.lastTickNanos() / tickNanos - tickUsage);
+        }
+
+        int pinned = pinnedTier;
+        if (pinned >= 0) {
+            setTier(pinned, now);
+            return;
+        }
+        double usage = Math.max(frameUsage, tickUsage);
+        overSince = usage > HIGH ? (overSince < 0 ? now : overSince) : -1;
+        underSince = usage < LOW ? (underSince < 0 ? now : underSince) : -1;
+        if (now - changedAt < SETTLE_NANOS) return;
+        if (overSince >= 0 && now - overSince >= DOWNGRADE_NANOS && tier < THIRD_RATE) {
+            setTier(tier + 1, now);
+        } else if (underSince >= 0 && now - underSince >= UPGRADE_NANOS && tier > FULL) {
+            setTier(tier - 1, now);
+        }
+    }
+
+    private void setTier(int t, long now) {
+        if (t == tier) return;
+        tier = t;
+        changes++;
+        changedAt = now;
+        overSince = -1;
+        underSince = -1;
+        frameIndex = 0;
+    }
+
+    @Override
+    public int getTier() {
+        return tier;
+    }
+
+    @Override
+    public String getTierName() {
+        return TIER_NAMES[tier];
+    }
+
+    @Override
+    public double getFrameBudgetUsage() {
+        return frameUsage;
+    }
+
+    @Override
+    public double getTickBudgetUsage() {
+        return tickUsage;
+    }
+
+    @Override
+    public long getRenderedFrames() {
+        return rendered;
+    }
+
+    @Override
+    public long getDroppedFrames() {
+        return dropped;
+    }
+
+    @Override
+    public long getTierChanges() {
+        return changes;
+    }
+
+    @Override
+    public void setPinnedTier(int tier) {
+        pinnedTier = tier < 0 ? -1 : Math.min(tier, THIRD_RATE);
+    }
+
+    @Override
+    public int getPinnedTier() {
+        return pinnedTier;
+    }
+}
@@ -0,0 +1,24 @@
+// 通过 JMX 暴露的帧节奏调节状态，注册名为 Shoot:type=FrameGovernor
+public interface FrameGovernorMXBean {
+
+    int getTier();
+
+    String getTierName();
+
+    // 最近绘制耗时占绘制预算（显示间隔乘以跳帧步长）的比例，平滑后的值
+    double getFrameBudgetUsage();
+
+    // 最近模拟一帧的耗时占模拟步长的比例，平滑后的值
+    double getTickBudgetUsage();
+
+    long getRenderedFrames();
+
+    long getDroppedFrames();
+
+    long getTierChanges();
+
+    // 固定在某一档，-1 恢复自动调节
+    void setPinnedTier(int tier);
+
+    int getPinnedTier();
+}
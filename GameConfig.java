@@ -0,0 +1,160 @@
+// 世界配置：场地尺寸与各实体池容量，运行时决定
+public class GameConfig {
+
+    int width = World.DEFAULT_WIDTH;
+    int height = World.DEFAULT_HEIGHT;
+
+    int maxObstacles = 20; // 最大障碍物数量
+    int initObstacles = 10; // 初始障碍物数量
+    int maxPlayerBullets = 3;
+    int maxEnemyBullets = 64;
+    int players = 1; // 玩家槽位数，多人服务器使用
+
+    // 自动瞄准是否计算提前量，默认与原游戏一样直接瞄准，--lead=1 打开
+    boolean leadTargeting = false;
+
+    // 随机种子，0 表示每局使用随机种子
+    long seed = 0;
+
+    // 难度参数，默认值即原游戏的常量
+    int speedUpScore = 1000; // 每多少分障碍物限速提升一级
+    int waveScore = 2000; // 从该分数起每 waveStep 分把障碍物补满
+    int waveStep = 500;
+    int tripleShotScore = 5000; // 三连发且子弹加速
+    int ceaseFireScore = 10000; // 玩家不能再开火
+    int volleyScore = 15000; // 敌方齐射开始
+    int volleyInterval = 400;
+    int enemyFireInterval = 500; // 敌方开火间隔（帧）
+    int hitLimit = 20; // 被敌方子弹击中多少次游戏结束
+    int protectionScore = 500; // 每多少分给一次护盾
+    int protectionFrames = 200; // 护盾持续帧数
+
+    // 模拟步长；游戏中的速度等常量都是按“每帧”计的，默认 30ms 与原定时器一致
+    long tickNanos = 30_000_000L;
+
+    // 更新子弹用的线程数，大于 1 时在 ForkJoin 线程池里并行，结果与单线程相同；不写入回放和存档
+    int tickThreads = 1;
+
+    public GameConfig() {
+    }
+
+    public GameConfig(int maxObstacles, int initObstacles, int maxPlayerBullets, int maxEnemyBullets) {
+        this.maxObstacles = maxObstacles;
+        this.initObstacles = Math.min(initObstacles, maxObstacles);
+        this.maxPlayerBullets = maxPlayerBullets;
+        this.maxEnemyBullets = maxEnemyBullets;
+    }
+
+    // 解析形如 --obstacles=20000 的命令行参数，未识别的参数忽略
+    public static GameConfig fromArgs(String[] args) {
+        GameConfig config = new GameConfig();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) continue;
+            String key = arg.substring(2, eq);
+            try {
+                config.set(key, Long.parseLong(arg.substring(eq + 1)));
+            } catch (NumberFormatException e) {
+                // 其他程序自己的非数值参数（如 --policy=random）不属于配置，不报错
+                if (new GameConfig().set(key, 0)) {
+                    System.err.println("Ignoring invalid option: " + arg);
+                }
+            }
+        }
+        return config;
+    }
+
+    // 各程序自己的参数也写成 --key=value（或不带值的 --key），用下面几个方法读取；同名参数出现多次时以最后一个为准
+    // 取值，没有时返回 defaultValue
+    static String option(String[] args, String key, String defaultValue) {
+        String prefix = "--" + key + "=";
+        String value = defaultValue;
+        for (String arg : args) {
+            if (arg.startsWith(prefix)) value = arg.substring(prefix.length());
+        }
+        return value;
+    }
+
+    static int intOption(String[] args, String key, int defaultValue) {
+        return (int) longOption(args, key, defaultValue);
+    }
+
+    static long longOption(String[] args, String key, long defaultValue) {
+        String value = option(args, key, null);
+        if (value == null) return defaultValue;
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw invalid(key, value);
+        }
+    }
+
+    static double doubleOption(String[] args, String key, double defaultValue) {
+        String value = option(args, key, null);
+        if (value == null) return defaultValue;
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw invalid(key, value);
+        }
+    }
+
+    // 逗号分隔的整数列表，如 --threads=1,2,4
+    static int[] intsOption(String[] args, String key, int[] defaultValue) {
+        String value = option(args, key, null);
+        if (value == null) return defaultValue;
+        String[] parts = value.split(",");
+        int[] result = new int[parts.length];
+        try {
+            for (int i = 0; i < parts.length; i++) result[i] = Integer.parseInt(parts[i].trim());
+        } catch (NumberFormatException e) {
+            throw invalid(key, value);
+        }
+        return result;
+    }
+
+    // 不带值的开关，如 --no-render
+    static boolean flag(String[] args, String key) {
+        String name = "--" + key;
+        for (String arg : args) {
+            if (arg.equals(name)) return true;
+        }
+        return false;
+    }
+
+    private static IllegalArgumentException invalid(String key, String value) {
+        return new IllegalArgumentException("invalid value for --" + key + ": " + value);
+    }
+
+    // 按命令行名称设置一个参数，未识别的名称返回 false
+    public boolean set(String key, long value) {
+        int v = (int) value;
+        switch (key) {
+            case "width": width = v; break;
+            case "height": height = v; break;
+            case "obstacles": maxObstacles = v; break;
+            case "init-obstacles": initObstacles = v; break;
+            case "player-bullets": maxPlayerBullets = v; break;
+            case "enemy-bullets": maxEnemyBullets = v; break;
+            case "players": players = Math.max(1, v); break;
+            case "lead": leadTargeting = value != 0; break;
+            case "seed": seed = value; break;
+            case "tick-hz": tickNanos = 1_000_000_000L / Math.max(1, value); break;
+            case "tick-threads": tickThreads = Math.max(1, v); break;
+            case "speedup-score": speedUpScore = Math.max(1, v); break;
+            case "wave-score": waveScore = v; break;
+            case "wave-step": waveStep = Math.max(1, v); break;
+            case "triple-shot-score": tripleShotScore = v; break;
+            case "cease-fire-score": ceaseFireScore = v; break;
+            case "volley-score": volleyScore = v; break;
+            case "volley-interval": volleyInterval = Math.max(1, v); break;
+            case "enemy-fire-interval": enemyFireInterval = Math.max(1, v); break;
+            case "hit-limit": hitLimit = Math.max(1, v); break;
+            case "protection-score": protectionScore = Math.max(1, v); break;
+            case "protection-frames": protectionFrames = v; break;
+            default: return false;
+        }
+        initObstacles = Math.min(initObstacles, maxObstacles);
+        return true;
+    }
+}
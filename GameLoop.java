@@ -0,0 +1,241 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.locks.LockSupport;
+
+// 独立的模拟线程：固定步长 + 时间累加器推进 World，每轮发布一份渲染快照
+// World 只在本线程内访问，其他线程通过 InputState 和 StateExchange 与之交互
+public class GameLoop implements Simulation {
+
+    // 落后太多时最多补这么多帧，避免渲染卡顿后模拟雪崩
+    private static final int MAX_CATCH_UP_TICKS = 5;
+
+    private final World world;
+    private final StateExchange exchange;
+    private final HighScoreStore highScores;
+    private final long tickNanos;
+
+    // 键盘状态，模拟线程每帧采样一次
+    private final InputState inputs = new InputState();
+    private volatile int requestedWidth;
+    private volatile int requestedHeight;
+    private volatile boolean running = true;
+
+    private boolean runEnded = false;
+    private long tick = 0;
+
+    // 可选的回放录制，游戏结束和循环退出时写盘
+    private ReplayRecorder recorder;
+    private Path replayPath;
+
+    // 快速存档文件（F5 保存，F9 读取）
+    private Path snapshotPath = Paths.get("quicksave.shs");
+
+    // 可选的分阶段计时
+    private Profiler profiler;
+
+    // 可选的遥测录制，每帧采样一次，一局结束和循环退出时交给写线程
+    private TelemetryRecorder telemetry;
+
+    // 可选的自动驾驶（如 MctsBot），设置后方向与开火由它决定，键盘只保留退出、重开等动作
+    private Policy autopilot;
+
+    public GameLoop(World world, StateExchange exchange, HighScoreStore highScores, long tickNanos) {
+        this.world = world;
+        this.exchange = exchange;
+        this.highScores = highScores;
+        this.tickNanos = tickNanos;
+        this.requestedWidth = world.width;
+        this.requestedHeight = world.height;
+    }
+
+    public long tickNanos() {
+        return tickNanos;
+    }
+
+    // 在启动线程之前调用
+    public void recordTo(Path path) {
+        recorder = new ReplayRecorder(world);
+        replayPath = path;
+    }
+
+    // 在启动线程之前调用
+    public void profile(Profiler profiler) {
+        this.profiler = profiler;
+        world.profiler = profiler;
+    }
+
+    // 在启动线程之前调用
+    public void telemetry(TelemetryRecorder recorder) {
+        telemetry = recorder;
+    }
+
+    // 在启动线程之前调用
+    public void autopilot(Policy policy) {
+        autopilot = policy;
+    }
+
+    public InputState inputs() {
+        return inputs;
+    }
+
+    // 任意线程：场地尺寸变化
+    public void resize(int width, int height) {
+        if (width > 0 && height > 0) {
+            requestedWidth = width;
+            requestedHeight = height;
+        }
+    }
+
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public void run() {
+        long simTime = System.nanoTime();
+        publish(simTime);
+
+        while (running) {
+            long now = System.nanoTime();
+            int ticks = 0;
+            while (now - simTime >= tickNanos && ticks < MAX_CATCH_UP_TICKS) {
+                simTime += tickNanos;
+                tick();
+                ticks++;
+            }
+            if (ticks == MAX_CATCH_UP_TICKS && now - simTime >= tickNanos) {
+                simTime = now; // 丢弃积压的时间
+            }
+            if (ticks > 0) {
+                publish(simTime);
+            }
+            long sleep = simTime + tickNanos - System.nanoTime();
+            if (sleep > 0) {
+                LockSupport.parkNanos(this, sleep);
+            }
+        }
+        saveReplay();
+        if (telemetry != null) {
+            telemetry.close();
+        }
+    }
+
+    private void tick() {
+        long start = profiler != null || telemetry != null ? System.nanoTime() : 0;
+        world.setSize(requestedWidth, requestedHeight);
+
+        // 方向键取按住状态，一次性动作全部取出
+        int input = autopilot != null && !world.gameOver ? autopilot.input(world) : inputs.held();
+        for (int action = inputs.poll(); action != 0; action = inputs.poll()) {
+            switch (action) {
+                case InputState.ACTION_FIRE:
+                    input |= World.INPUT_FIRE;
+                    break;
+                case InputState.ACTION_QUIT:
+                    input |= World.INPUT_QUIT;
+                    break;
+                case InputState.ACTION_RESTART:
+                    input |= World.INPUT_RESTART;
+                    break;
+                case InputState.ACTION_SAVE:
+                    saveSnapshot();
+                    break;
+                case InputState.ACTION_LOAD:
+                    loadSnapshot();
+                    break;
+            }
+        }
+
+        boolean restart = (input & World.INPUT_RESTART) != 0 && world.gameOver;
+        if (recorder != null) {
+            recorder.record(input, world.width, world.height);
+        }
+        world.step(input);
+        tick++;
+        afterStep(restart, start);
+        if (profiler != null) {
+            profiler.endTick(world, start);
+        }
+    }
+
+    // world.step() 之后的处理：重开时开始新的一局，提交分数，一局结束时计入排行榜、保存回放并把遥测交给写线程
+    // restart 为这一帧是否从游戏结束画面重开，start 为这一帧开始的 System.nanoTime()（遥测记录帧耗时）
+    // AllocationCheck 也调用这里，检查的就是游戏实际走的路径
+    void afterStep(boolean restart, long start) {
+        if (restart) {
+            highScores.beginRun();
+            runEnded = false;
+        }
+
+        // 只记录到内存，由写线程合并落盘
+        long t = profiler != null ? System.nanoTime() : 0;
+        highScores.submit(world.score);
+        boolean ended = world.gameOver && !runEnded;
+        if (ended) {
+            highScores.endRun();
+            runEnded = true;
+        }
+        if (profiler != null) {
+            profiler.lap(Profiler.HIGH_SCORE, t);
+        }
+        if (ended) {
+            saveReplay();
+        }
+        if (telemetry != null) {
+            telemetry.record(world, System.nanoTime() - start);
+            if (ended) telemetry.flush();
+        }
+    }
+
+    private void saveSnapshot() {
+        try {
+            WorldSnapshot.save(world, snapshotPath);
+        } catch (IOException e) {
+            System.err.println("Failed to save snapshot: " + snapshotPath);
+        }
+    }
+
+    // 读档后从存档状态继续；当前局先计入排行榜，回放录制到此为止
+    private void loadSnapshot() {
+        int highScore = world.highScore;
+        try {
+            WorldSnapshot.load(world, snapshotPath);
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Failed to load snapshot: " + snapshotPath);
+            return;
+        }
+        world.highScore = Math.max(world.highScore, highScore);
+        highScores.beginRun();
+        runEnded = world.gameOver;
+        if (runEnded) {
+            highScores.endRun(); // 存档本身已结束：不再计入排行榜，结束画面上的提交也被忽略
+        }
+        if (recorder != null) {
+            saveReplay();
+            recorder = null;
+            System.err.println("Replay recording stopped after loading a snapshot");
+        }
+    }
+
+    private void saveReplay() {
+        if (recorder == null) return;
+        try {
+            recorder.save(replayPath, world);
+        } catch (IOException e) {
+            System.err.println("Failed to save replay file: " + replayPath);
+        }
+    }
+
+    private void publish(long simTime) {
+        long start = profiler != null ? System.nanoTime() : 0;
+        RenderState state = exchange.backBuffer();
+        state.capture(world);
+        state.tick = tick;
+        state.simTimeNanos = simTime;
+        exchange.publish();
+        if (profiler != null) {
+            profiler.lap(Profiler.PUBLISH, start);
+        }
+    }
+}
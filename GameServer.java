@@ -0,0 +1,409 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+// 权威服务器：单线程，UDP + 非阻塞 Selector
+// 收客户端的输入包，按固定步长推进共享的多人 World，每帧向每个客户端发一份相对它最后确认帧的增量状态
+//
+// 协议（小端序，每个数据报一个消息，首字节为类型）：
+//   客户端 -> 服务器
+//     HELLO   版本, 补零到 HELLO_BYTES   不短于 WELCOME，伪造源地址的请求得不到放大的回复；更短的直接丢弃
+//     INPUT   确认帧号, 条数 n, n × (输入序号, 输入位)   最近几条输入冗余重发，旧的在前
+//     BYE
+//   服务器 -> 客户端
+//     WELCOME 版本, 槽位, 玩家槽位数, 三个池容量, 场地宽高, 每帧纳秒
+//     FULL    没有空槽位
+//     STATE   帧号, 基准帧号（-1 表示完整状态）, 已应用的输入序号, 位打包的 NetState 增量
+//
+// 用法：java GameServer [--port=7777] [--players=8] [GameConfig 参数...]
+public class GameServer implements Runnable {
+
+    static final int DEFAULT_PORT = 7777;
+    static final int PROTOCOL_VERSION = 2;
+
+    static final byte HELLO = 1;
+    static final byte INPUT = 2;
+    static final byte BYE = 3;
+    static final byte WELCOME = 10;
+    static final byte FULL = 11;
+    static final byte STATE = 12;
+
+    static final int WELCOME_BYTES = 1 + 4 + 1 + 6 * 4 + 8;
+    static final int HELLO_BYTES = WELCOME_BYTES;
+    static final int STATE_HEADER_BYTES = 1 + 3 * 4;
+    static final int MAX_PACKET = 1400;
+
+    // 保留最近这么多帧的状态作为增量基准，客户端确认得更早时发完整状态
+    private static final int HISTORY = 64;
+    private static final int INPUT_QUEUE = 16;
+    // 输入积压超过这么多条时合并两条，避免延迟越积越大
+    private static final int INPUT_BACKLOG = 4;
+    private static final long CLIENT_TIMEOUT_NANOS = 5_000_000_000L;
+    private static final int RESTART_DELAY_TICKS = 100;
+    private static final int MAX_CATCH_UP_TICKS = 5;
+
+    // 一个连接上的客户端
+    private static final class Client {
+        final SocketAddress address;
+        final int slot;
+        long lastHeard;
+        int ackTick = -1;
+
+        // 收到但还没应用的输入，环形队列
+        final int[] seqs = new int[INPUT_QUEUE];
+        final int[] bits = new int[INPUT_QUEUE];
+        int head, size;
+        int lastReceivedSeq;
+        int appliedSeq;
+        int held; // 最近一次输入的方向键，输入断档时沿用
+
+        Client(SocketAddress address, int slot) {
+            this.address = address;
+            this.slot = slot;
+        }
+
+        void offer(int seq, int input) {
+            if (seq <= lastReceivedSeq) return;
+            lastReceivedSeq = seq;
+            if (size == INPUT_QUEUE) return;
+            int i = (head + size) % INPUT_QUEUE;
+            seqs[i] = seq;
+            bits[i] = input;
+            size++;
+        }
+
+        // 本帧输入：每帧消耗一条；积压时合并一条；没有新输入时只沿用方向键
+        int next() {
+            if (size == 0) return held;
+            int input = take();
+            if (size > INPUT_BACKLOG) {
+                input = (input & (World.INPUT_FIRE | World.INPUT_RESTART)) | take();
+            }
+            held = input & (World.INPUT_LEFT | World.INPUT_RIGHT | World.INPUT_UP | World.INPUT_DOWN);
+            return input;
+        }
+
+        private int take() {
+            int input = bits[head];
+            appliedSeq = seqs[head];
+            head = (head + 1) % INPUT_QUEUE;
+            size--;
+            return input;
+        }
+    }
+
+    private final GameConfig config;
+    private final World world;
+    private final DatagramChannel channel;
+    private final Selector selector;
+    private volatile boolean running = true;
+
+    private final Client[] slots;
+    private final Map<SocketAddress, Client> clients = new HashMap<>();
+    private final int[] inputs;
+    private int tick = 0;
+    private int gameOverTicks = 0;
+
+    private final NetState[] history = new NetState[HISTORY];
+    private final BitWriter bitWriter = new BitWriter();
+    private final ByteBuffer in = ByteBuffer.allocate(MAX_PACKET).order(ByteOrder.LITTLE_ENDIAN);
+    private final ByteBuffer out = ByteBuffer.allocate(MAX_PACKET).order(ByteOrder.LITTLE_ENDIAN);
+
+    // 同一帧里按基准帧缓存编码结果，确认同一帧的客户端共用一份
+    private final ByteBuffer bodies;
+    private final int maxBodyBytes;
+    private final int[] cachedBase = new int[HISTORY + 1];
+    private final int[] cachedOffset = new int[HISTORY + 1];
+    private final int[] cachedLength = new int[HISTORY + 1];
+    private int cachedCount;
+
+    // 统计：每帧耗时（推进 + 编码 + 发送）、编码耗时、发送量
+    final LatencyHistogram tickTimes = new LatencyHistogram();
+    final LatencyHistogram encodeTimes = new LatencyHistogram();
+    volatile long bytesSent;
+    volatile long packetsSent;
+    volatile long packetsDropped;
+
+    public GameServer(GameConfig config, int port) throws IOException {
+        this.config = config;
+        world = new World(config);
+        // 没有人连入之前所有槽位都空着
+        for (int i = 0; i < world.players.length; i++) {
+            world.leave(i);
+        }
+        slots = new Client[world.players.length];
+        inputs = new int[world.players.length];
+        for (int i = 0; i < HISTORY; i++) {
+            history[i] = new NetState(config);
+        }
+        NetState probe = history[0];
+        maxBodyBytes = (34 + probe.entries * 35 + 7) / 8;
+        if (STATE_HEADER_BYTES + maxBodyBytes > MAX_PACKET) {
+            throw new IllegalArgumentException("state does not fit in one datagram, reduce players or pool sizes");
+        }
+        bodies = ByteBuffer.allocate((HISTORY + 1) * maxBodyBytes);
+
+        channel = DatagramChannel.open();
+        channel.bind(new InetSocketAddress(port));
+        channel.configureBlocking(false);
+        selector = Selector.open();
+        channel.register(selector, SelectionKey.OP_READ);
+    }
+
+    public int port() throws IOException {
+        return ((InetSocketAddress) channel.getLocalAddress()).getPort();
+    }
+
+    public int clientCount() {
+        return clients.size();
+    }
+
+    public void stop() {
+        running = false;
+        selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+        long tickNanos = config.tickNanos;
+        long next = System.nanoTime();
+        try {
+            while (running) {
+                long wait = next - System.nanoTime();
+                if (wait >= 1_000_000) {
+                    selector.select(wait / 1_000_000);
+                } else if (wait > 0) {
+                    selector.selectNow();
+                    LockSupport.parkNanos(Math.min(wait, 200_000));
+                } else {
+                    selector.selectNow();
+                }
+                selector.selectedKeys().clear();
+                receive();
+
+                long now = System.nanoTime();
+                int ticks = 0;
+                while (now - next >= 0 && ticks < MAX_CATCH_UP_TICKS) {
+                    next += tickNanos;
+                    tick(now);
+                    ticks++;
+                }
+                if (ticks == MAX_CATCH_UP_TICKS && now - next >= 0) {
+                    next = now + tickNanos; // 丢弃积压的时间
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to run game server: " + e.getMessage());
+        } finally {
+            try {
+                selector.close();
+                channel.close();
+            } catch (IOException e) {
+                System.err.println("Failed to close game server socket");
+            }
+        }
+    }
+
+    // 取出所有到达的数据报
+    private void receive() throws IOException {
+        while (true) {
+            in.clear();
+            SocketAddress from = channel.receive(in);
+            if (from == null) return;
+            in.flip();
+            if (!in.hasRemaining()) continue;
+            try {
+                handle(from, in.get());
+            } catch (RuntimeException e) {
+                // 截断或格式不对的包直接丢弃
+            }
+        }
+    }
+
+    private void handle(SocketAddress from, byte type) throws IOException {
+        Client c = clients.get(from);
+        switch (type) {
+            case HELLO:
+                if (in.limit() < HELLO_BYTES || in.getInt() != PROTOCOL_VERSION) return;
+                if (c == null) c = accept(from);
+                if (c == null) {
+                    out.clear();
+                    out.put(FULL);
+                    send(from);
+                    return;
+                }
+                c.lastHeard = System.nanoTime();
+                welcome(c);
+                break;
+            case INPUT:
+                if (c == null) return;
+                c.lastHeard = System.nanoTime();
+                int ack = in.getInt();
+                if (ack > c.ackTick && ack <= tick) c.ackTick = ack;
+                int n = in.get() & 0xFF;
+                for (int k = 0; k < n; k++) {
+                    int seq = in.getInt();
+                    c.offer(seq, in.get() & 0xFF);
+                }
+                break;
+            case BYE:
+                if (c != null) drop(c);
+                break;
+        }
+    }
+
+    private Client accept(SocketAddress from) {
+        for (int i = 0; i < slots.length; i++) {
+            if (slots[i] != null) continue;
+            Client c = new Client(from, i);
+            slots[i] = c;
+            clients.put(from, c);
+            world.join(i);
+            // 场上没人时新开一局
+            if (world.activePlayers() == 0) world.reset();
+            return c;
+        }
+        return null;
+    }
+
+    private void drop(Client c) {
+        slots[c.slot] = null;
+        clients.remove(c.address);
+        world.leave(c.slot);
+    }
+
+    // 解析 --connect 的“主机[:端口]”，省略端口时用默认端口；端口不合法时抛出 IllegalArgumentException
+    static InetSocketAddress address(String hostPort) {
+        int colon = hostPort.lastIndexOf(':');
+        if (colon < 0) return new InetSocketAddress(hostPort, DEFAULT_PORT);
+        try {
+            return new InetSocketAddress(hostPort.substring(0, colon), Integer.parseInt(hostPort.substring(colon + 1)));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid server address (expected host[:port]): " + hostPort);
+        }
+    }
+
+    // 客户端写一个 HELLO 到 out（从当前位置开始，写完不 flip）
+    static void putHello(ByteBuffer out) {
+        int start = out.position();
+        out.put(HELLO).putInt(PROTOCOL_VERSION);
+        while (out.position() - start < HELLO_BYTES) out.put((byte) 0);
+    }
+
+    private void welcome(Client c) throws IOException {
+        out.clear();
+        out.put(WELCOME);
+        out.putInt(PROTOCOL_VERSION);
+        out.put((byte) c.slot);
+        out.putInt(world.players.length);
+        out.putInt(config.maxObstacles);
+        out.putInt(config.maxPlayerBullets);
+        out.putInt(config.maxEnemyBullets);
+        out.putInt(world.width);
+        out.putInt(world.height);
+        out.putLong(config.tickNanos);
+        send(c.address);
+    }
+
+    private void tick(long now) throws IOException {
+        long start = System.nanoTime();
+        for (int i = 0; i < slots.length; i++) {
+            Client c = slots[i];
+            if (c != null && now - c.lastHeard > CLIENT_TIMEOUT_NANOS) {
+                drop(c);
+            }
+            inputs[i] = slots[i] != null ? slots[i].next() : 0;
+        }
+        world.step(inputs);
+        tick++;
+
+        // 没人按重新开始时，结束一段时间后自动开下一局
+        gameOverTicks = world.gameOver ? gameOverTicks + 1 : 0;
+        if (gameOverTicks > RESTART_DELAY_TICKS && !clients.isEmpty()) {
+            world.reset();
+            gameOverTicks = 0;
+        }
+
+        NetState state = history[tick % HISTORY];
+        state.capture(world, tick);
+        broadcast(state);
+        tickTimes.record(System.nanoTime() - start);
+    }
+
+    private void broadcast(NetState state) throws IOException {
+        cachedCount = 0;
+        bodies.clear();
+        for (Client c : slots) {
+            if (c == null) continue;
+            int base = c.ackTick;
+            if (base < 0 || tick - base >= HISTORY || history[base % HISTORY].tick != base) {
+                base = -1;
+            }
+            int k = body(state, base);
+            out.clear();
+            out.put(STATE);
+            out.putInt(tick);
+            out.putInt(base);
+            out.putInt(c.appliedSeq);
+            out.put(bodies.array(), cachedOffset[k], cachedLength[k]);
+            send(c.address);
+        }
+    }
+
+    // 返回相对 base 的编码在缓存中的下标，没有时编码一份
+    private int body(NetState state, int base) {
+        for (int k = 0; k < cachedCount; k++) {
+            if (cachedBase[k] == base) return k;
+        }
+        long start = System.nanoTime();
+        int k = cachedCount++;
+        cachedBase[k] = base;
+        cachedOffset[k] = bodies.position();
+        bitWriter.begin(bodies);
+        state.encode(base < 0 ? null : history[base % HISTORY], bitWriter);
+        cachedLength[k] = bodies.position() - cachedOffset[k];
+        encodeTimes.record(System.nanoTime() - start);
+        return k;
+    }
+
+    private void send(SocketAddress to) throws IOException {
+        out.flip();
+        int n = channel.send(out, to);
+        if (n == 0) {
+            packetsDropped++;
+            return;
+        }
+        bytesSent += n;
+        packetsSent++;
+    }
+
+    public String stats() {
+        return String.format("clients %d  tick p50 %.1f us  p99 %.1f us  max %.1f us  encode p50 %.1f us  sent %d packets / %d bytes  dropped %d",
+                clientCount(),
+                tickTimes.percentile(50) / 1e3, tickTimes.percentile(99) / 1e3, tickTimes.max() / 1e3,
+                encodeTimes.percentile(50) / 1e3, packetsSent, bytesSent, packetsDropped);
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = GameConfig.intOption(args, "port", DEFAULT_PORT);
+        GameConfig config = GameConfig.fromArgs(args);
+        if (GameConfig.option(args, "players", null) == null) config.players = 8;
+
+        GameServer server = new GameServer(config, port);
+        Thread thread = new Thread(server, "game-server");
+        thread.start();
+        System.out.println("Listening on UDP port " + server.port() + " for " + config.players + " players");
+        while (thread.isAlive()) {
+            thread.join(10_000);
+            System.out.println(server.stats());
+        }
+    }
+}
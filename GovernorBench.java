@@ -0,0 +1,96 @@
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Locale;
+import java.util.concurrent.locks.LockSupport;
+
+// 帧节奏调节演示：无头离屏渲染，按显示刷新率定时绘制，先是子弹铺满场地的重负载，再换成默认场地的轻负载
+// 每个窗口打印当前档位、帧预算占用、窗口内绘制耗时的 p99 与跳过的显示帧，可以看到档位先逐级下降、负载减轻后再逐级恢复
+// --load-ms 给重负载阶段的每次绘制额外加上忙等，模拟更慢的显卡
+// 用法：java GovernorBench [--hz=60] [--heavy-ms=6000] [--light-ms=16000] [--load-ms=0] [--window-ms=500]
+//                          [--bullets=20000] [GameConfig 参数...]
+public class GovernorBench {
+
+    public static void main(String[] args) {
+        int hz = GameConfig.intOption(args, "hz", 60);
+        long heavyNanos = GameConfig.longOption(args, "heavy-ms", 6000) * 1_000_000L;
+        long lightNanos = GameConfig.longOption(args, "light-ms", 16_000) * 1_000_000L;
+        long loadNanos = (long) (GameConfig.doubleOption(args, "load-ms", 0) * 1_000_000L);
+        long windowNanos = GameConfig.longOption(args, "window-ms", 500) * 1_000_000L;
+        int bullets = GameConfig.intOption(args, "bullets", 20_000);
+
+        GameConfig config = GameConfig.fromArgs(args);
+        RenderState light = snapshot(config, new World(config, 1));
+        GameConfig heavyConfig = GameConfig.fromArgs(args);
+        heavyConfig.maxPlayerBullets = bullets / 4;
+        heavyConfig.maxEnemyBullets = bullets - bullets / 4;
+        World heavyWorld = new World(heavyConfig, 1);
+        Bench.populate(heavyWorld, 1);
+        RenderState heavy = snapshot(heavyConfig, heavyWorld);
+
+        long frameNanos = 1_000_000_000L / hz;
+        Renderer renderer = new Renderer(null);
+        BufferedImage frame = new BufferedImage(config.width, config.height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = frame.createGraphics();
+        FrameGovernor governor = new FrameGovernor(frameNanos, config.tickNanos, null);
+        LatencyHistogram window = new LatencyHistogram();
+
+        System.out.println("# hz=" + hz + " heavy_bullets=" + (heavy.enemyBulletCount + heavy.playerBulletCount)
+                + " light_bullets=" + (light.enemyBulletCount + light.playerBulletCount));
+        System.out.println("seconds,phase,tier,frame_usage,render_p99_ms,rendered,dropped");
+        long begin = System.nanoTime();
+        long next = begin;
+        long windowEnd = begin + windowNanos;
+        long rendered = 0;
+        long dropped = 0;
+        while (true) {
+            long now = System.nanoTime();
+            long elapsed = now - begin;
+            if (elapsed >= heavyNanos + lightNanos) break;
+            boolean heavyPhase = elapsed < heavyNanos;
+
+            if (governor.frameDue()) {
+                long start = System.nanoTime();
+                renderer.tier = governor.tier();
+                renderer.render(g, heavyPhase ? heavy : light, 0.5f, config.width, config.height);
+                if (heavyPhase) spin(start + loadNanos);
+                long nanos = System.nanoTime() - start;
+                governor.frameRendered(nanos);
+                window.record(nanos);
+                rendered++;
+            } else {
+                dropped++;
+            }
+
+            if (now >= windowEnd) {
+                System.out.printf(Locale.ROOT, "%.1f,%s,%s,%.2f,%.2f,%d,%d%n", elapsed / 1e9, heavyPhase ? "heavy" : "light",
+                        FrameGovernor.TIER_NAMES[governor.tier()], governor.getFrameBudgetUsage(),
+                        window.percentile(99) / 1e6, rendered, dropped);
+                window.reset();
+                rendered = 0;
+                dropped = 0;
+                windowEnd += windowNanos;
+            }
+
+            // 与 ActiveView 相同的节拍：跟不上时不累积欠账
+            next += frameNanos;
+            long sleep = next - System.nanoTime();
+            if (sleep > 0) {
+                LockSupport.parkNanos(sleep);
+            } else {
+                next = System.nanoTime();
+            }
+        }
+        g.dispose();
+        System.out.println("# tier changes " + governor.getTierChanges() + ", dropped frames " + governor.getDroppedFrames());
+    }
+
+    private static RenderState snapshot(GameConfig config, World world) {
+        RenderState state = new RenderState(config);
+        state.capture(world);
+        return state;
+    }
+
+    private static void spin(long until) {
+        while (System.nanoTime() < until) Thread.onSpinWait();
+    }
+}
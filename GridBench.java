@@ -0,0 +1,114 @@
+import java.util.SplittableRandom;
+
+// 子弹-障碍物碰撞基准：暴力双重循环 vs 均匀网格（含每帧重建）
+// 障碍物密度保持与默认 800x600 场地 20 个障碍物相同，输出 CSV 与交叉点
+// 用法：java GridBench [--min-ms=100]
+public class GridBench {
+
+    private static final int[] OBSTACLE_COUNTS = {5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000, 10000};
+    private static final int[] BULLET_COUNTS = {3, 16, 64, 256, 1024, 4096};
+
+    private static final float RX = World.OBSTACLE_WIDTH / 2 + World.BULLET_RADIUS;
+    private static final float RY = World.OBSTACLE_HEIGHT / 2 + World.BULLET_RADIUS;
+
+    static volatile int sink;
+
+    public static void main(String[] args) {
+        long minNanos = GameConfig.longOption(args, "min-ms", 100) * 1_000_000L;
+
+        System.out.println("obstacles,bullets,width,height,brute_ns,grid_ns,speedup");
+        for (int bullets : BULLET_COUNTS) {
+            int crossover = -1;
+            for (int obstacles : OBSTACLE_COUNTS) {
+                // 面积随障碍物数量线性增长
+                double scale = Math.sqrt(obstacles / 20.0);
+                int width = (int) (World.DEFAULT_WIDTH * scale);
+                int height = (int) (World.DEFAULT_HEIGHT * scale);
+
+                SplittableRandom random = new SplittableRandom(obstacles * 31L + bullets);
+                EntityPool obs = fill(obstacles, width, height, random);
+                EntityPool pb = fill(bullets, width, height, random);
+                SpatialGrid grid = new SpatialGrid(obstacles);
+                int[] candidates = new int[obstacles];
+
+                // 两种实现必须给出相同的命中数
+                int a = brute(obs, pb);
+                int b = grid(obs, pb, grid, candidates, width, height);
+                if (a != b) throw new IllegalStateException("hit count mismatch: " + a + " vs " + b);
+
+                double bruteNs = time(() -> sink += brute(obs, pb), minNanos);
+                double gridNs = time(() -> sink += grid(obs, pb, grid, candidates, width, height), minNanos);
+                if (crossover < 0 && gridNs < bruteNs) crossover = obstacles;
+
+                System.out.printf("%d,%d,%d,%d,%.0f,%.0f,%.2f%n",
+                        obstacles, bullets, width, height, bruteNs, gridNs, bruteNs / gridNs);
+            }
+            System.out.println("# bullets=" + bullets + " grid faster from obstacles=" + crossover);
+        }
+    }
+
+    private static EntityPool fill(int n, int width, int height, SplittableRandom random) {
+        EntityPool pool = new EntityPool(n);
+        for (int k = 0; k < n; k++) {
+            int i = pool.acquire();
+            pool.x[i] = (float) random.nextDouble(width);
+            pool.y[i] = (float) random.nextDouble(height);
+        }
+        return pool;
+    }
+
+    // 与原 updateGame() 相同的暴力检测，每颗子弹只记第一次命中
+    private static int brute(EntityPool obs, EntityPool pb) {
+        int hits = 0;
+        for (int n = 0; n < pb.size; n++) {
+            int b = pb.live[n];
+            for (int k = 0; k < obs.size; k++) {
+                int i = obs.live[k];
+                float dx = pb.x[b] - (obs.x[i] + World.OBSTACLE_WIDTH / 2);
+                float dy = pb.y[b] - (obs.y[i] + World.OBSTACLE_HEIGHT / 2);
+                if (Math.abs(dx) <= RX && Math.abs(dy) <= RY) {
+                    hits++;
+                    break;
+                }
+            }
+        }
+        return hits;
+    }
+
+    private static int grid(EntityPool obs, EntityPool pb, SpatialGrid grid, int[] candidates, int width, int height) {
+        grid.rebuild(obs, width, height);
+        int hits = 0;
+        for (int n = 0; n < pb.size; n++) {
+            int b = pb.live[n];
+            float bx = pb.x[b];
+            float by = pb.y[b];
+            int count = grid.query(bx - World.BULLET_RADIUS - World.OBSTACLE_WIDTH, by - World.BULLET_RADIUS - World.OBSTACLE_HEIGHT,
+                    bx + World.BULLET_RADIUS, by + World.BULLET_RADIUS, candidates);
+            for (int c = 0; c < count; c++) {
+                int i = candidates[c];
+                float dx = bx - (obs.x[i] + World.OBSTACLE_WIDTH / 2);
+                float dy = by - (obs.y[i] + World.OBSTACLE_HEIGHT / 2);
+                if (Math.abs(dx) <= RX && Math.abs(dy) <= RY) {
+                    hits++;
+                    break;
+                }
+            }
+        }
+        return hits;
+    }
+
+    // 预热后反复运行至少 minNanos，返回每次调用的平均纳秒数
+    private static double time(Runnable body, long minNanos) {
+        long warmupEnd = System.nanoTime() + minNanos / 2;
+        while (System.nanoTime() < warmupEnd) body.run();
+        long iterations = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            body.run();
+            iterations++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < minNanos);
+        return (double) elapsed / iterations;
+    }
+}
@@ -0,0 +1,50 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// 排行榜回归检查：按 GameLoop.tick() 的调用顺序模拟“一局 → 游戏结束画面停留若干帧 → 重开”，
+// 检查这一局只进排行榜一次，关闭重新读取后仍然只有一条；不符时以非零状态退出
+// 用法：java HighScoreCheck
+public class HighScoreCheck {
+
+    private static final int IDLE_TICKS = 100;
+
+    public static void main(String[] args) throws IOException {
+        Path file = Files.createTempFile("highscore-check", ".dat");
+        Files.delete(file);
+        try {
+            try (HighScoreStore store = new HighScoreStore(file)) {
+                // 一局得 100 分后结束
+                for (int score = 0; score <= 100; score += 10) store.submit(score);
+                store.endRun();
+                // 游戏结束画面上每帧仍然提交分数
+                for (int t = 0; t < IDLE_TICKS; t++) store.submit(100);
+                // 重开，新的一局刚开始
+                store.beginRun();
+                for (int t = 0; t < IDLE_TICKS; t++) store.submit(0);
+                expect("after restart", store, 100);
+            }
+            try (HighScoreStore store = new HighScoreStore(file)) {
+                expect("after reload", store, 100);
+            }
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(file.resolveSibling(file.getFileName() + ".tmp"));
+        }
+        System.out.println("one game followed by a restart left one leaderboard entry");
+    }
+
+    private static void expect(String when, HighScoreStore store, int... expected) {
+        int[] scores = new int[HighScoreStore.LEADERBOARD_SIZE];
+        long[] times = new long[HighScoreStore.LEADERBOARD_SIZE];
+        int n = store.leaderboard(scores, times);
+        boolean ok = n == expected.length;
+        for (int i = 0; ok && i < n; i++) ok = scores[i] == expected[i];
+        if (!ok) {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < n; i++) sb.append(i == 0 ? "" : ", ").append(scores[i]);
+            System.err.println("Failed high score check " + when + ": leaderboard is [" + sb + "]");
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,227 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.CRC32;
+
+// 最高分存储：内存中维护前 N 名排行榜（分数 + 时间戳），由后台线程合并写盘
+// 热路径 submit() 只写 volatile 字段，不做任何 I/O、不分配对象
+// 写盘采用“写临时文件 + fsync + 原子改名”，崩溃后文件要么是旧版本要么是新版本
+public class HighScoreStore implements AutoCloseable {
+
+    static final String DEFAULT_FILE = "highscore.dat";
+    static final int LEADERBOARD_SIZE = 10;
+    static final long FLUSH_INTERVAL_MS = 500; // 合并提交窗口
+
+    private static final int MAGIC = 0x53484F54; // "SHOT"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 12; // magic + version + count
+    private static final int ENTRY_BYTES = 12; // score + timestamp
+
+    private final Path file;
+    private final Path tmpFile;
+
+    // 排行榜按分数降序，只在持锁时读写
+    private final int[] scores = new int[LEADERBOARD_SIZE];
+    private final long[] times = new long[LEADERBOARD_SIZE];
+    private int size;
+
+    // 当前一局，只由游戏线程写入；写盘时作为临时条目并入排行榜
+    private volatile int runScore;
+    private volatile long runStart;
+    private volatile int best;
+    private volatile boolean ended; // 本局已并入排行榜，之后的提交忽略，直到下一局开始
+
+    private volatile boolean dirty;
+    private volatile boolean closed;
+    private final Thread writer;
+
+    public HighScoreStore() {
+        this(Paths.get(DEFAULT_FILE));
+    }
+
+    public HighScoreStore(Path file) {
+        this.file = file;
+        this.tmpFile = file.resolveSibling(file.getFileName() + ".tmp");
+        load();
+        runStart = System.currentTimeMillis();
+
+        writer = new Thread(this::writeLoop, "highscore-writer");
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, "highscore-shutdown"));
+    }
+
+    // 每帧调用：记录当前局分数，必要时唤醒写线程；本局结束后（游戏结束画面）再调用不起作用
+    public void submit(int score) {
+        if (ended || score <= runScore) return;
+        runScore = score;
+        if (score > best) best = score;
+        if (!dirty) {
+            dirty = true;
+            LockSupport.unpark(writer);
+        }
+    }
+
+    // 当前局结束：并入排行榜
+    public synchronized void endRun() {
+        ended = true;
+        if (runScore > 0) {
+            insert(runScore, runStart);
+            runScore = 0;
+            markDirty();
+        }
+    }
+
+    // 开始新的一局
+    public void beginRun() {
+        endRun();
+        runStart = System.currentTimeMillis();
+        ended = false;
+    }
+
+    public int highScore() {
+        return best;
+    }
+
+    // 把排行榜复制到调用方数组，返回条目数
+    public synchronized int leaderboard(int[] outScores, long[] outTimes) {
+        int n = Math.min(size, Math.min(outScores.length, outTimes.length));
+        System.arraycopy(scores, 0, outScores, 0, n);
+        System.arraycopy(times, 0, outTimes, 0, n);
+        return n;
+    }
+
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(FLUSH_INTERVAL_MS * 4);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // 写线程退出后再同步写一次，保证最后的分数落盘
+        try {
+            flush();
+        } catch (IOException e) {
+            System.err.println("Failed to save high score file: " + file);
+        }
+    }
+
+    private void markDirty() {
+        if (!dirty) {
+            dirty = true;
+            LockSupport.unpark(writer);
+        }
+    }
+
+    private void writeLoop() {
+        while (!closed) {
+            if (!dirty) {
+                LockSupport.park(this);
+                continue;
+            }
+            // 等待一个窗口，把期间的多次更新合并成一次写盘
+            LockSupport.parkNanos(this, FLUSH_INTERVAL_MS * 1_000_000L);
+            if (closed) break;
+            dirty = false;
+            try {
+                flush();
+            } catch (IOException e) {
+                System.err.println("Failed to save high score file: " + file);
+            }
+        }
+    }
+
+    // 插入一条记录，保持降序并截断到 N 名
+    private void insert(int score, long time) {
+        int pos = size;
+        while (pos > 0 && scores[pos - 1] < score) pos--;
+        if (pos >= LEADERBOARD_SIZE) return;
+        int last = Math.min(size, LEADERBOARD_SIZE - 1);
+        for (int i = last; i > pos; i--) {
+            scores[i] = scores[i - 1];
+            times[i] = times[i - 1];
+        }
+        scores[pos] = score;
+        times[pos] = time;
+        if (size < LEADERBOARD_SIZE) size++;
+        if (score > best) best = score;
+    }
+
+    // 写临时文件并原子替换正式文件
+    private void flush() throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(HEADER_BYTES + ENTRY_BYTES * (LEADERBOARD_SIZE + 1) + 8);
+        synchronized (this) {
+            // 当前局作为临时条目按序并入
+            int run = runScore;
+            boolean runWritten = run <= 0;
+            int count = Math.min(size + (runWritten ? 0 : 1), LEADERBOARD_SIZE);
+            buf.putInt(MAGIC).putInt(VERSION).putInt(count);
+            int i = 0;
+            for (int n = 0; n < count; n++) {
+                if (!runWritten && (i >= size || scores[i] < run)) {
+                    buf.putInt(run).putLong(runStart);
+                    runWritten = true;
+                } else {
+                    buf.putInt(scores[i]).putLong(times[i]);
+                    i++;
+                }
+            }
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buf.array(), 0, buf.position());
+        buf.putLong(crc.getValue());
+        buf.flip();
+
+        try (FileChannel ch = FileChannel.open(tmpFile, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buf.hasRemaining()) ch.write(buf);
+            ch.force(true);
+        }
+        try {
+            Files.move(tmpFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // 读取正式文件；若损坏则尝试上次未完成改名的临时文件，再退回旧版单个 int 格式
+    private synchronized void load() {
+        if (read(file) || read(tmpFile)) {
+            return;
+        }
+        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(file.toFile()))) {
+            insert(ois.readInt(), 0);
+        } catch (IOException e) {
+            System.err.println("Failed to load high score file: " + file);
+        }
+    }
+
+    private boolean read(Path path) {
+        byte[] data;
+        try {
+            data = Files.readAllBytes(path);
+        } catch (IOException e) {
+            return false;
+        }
+        if (data.length < HEADER_BYTES + 8) return false;
+        ByteBuffer buf = ByteBuffer.wrap(data);
+        if (buf.getInt() != MAGIC || buf.getInt() != VERSION) return false;
+        int count = buf.getInt();
+        int payload = HEADER_BYTES + count * ENTRY_BYTES;
+        if (count < 0 || count > LEADERBOARD_SIZE || data.length < payload + 8) return false;
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, payload);
+        if (buf.getLong(payload) != crc.getValue()) return false;
+
+        size = 0;
+        for (int n = 0; n < count; n++) {
+            insert(buf.getInt(), buf.getLong());
+        }
+        return true;
+    }
+}
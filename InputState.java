@@ -0,0 +1,59 @@
+import java.util.concurrent.atomic.AtomicInteger;
+
+// 输入缓冲：按住的方向键用原子位集表示，开火等一次性动作放进单生产者单消费者环形队列
+// 事件线程只写，模拟线程每帧采样一次，双方都不加锁
+public class InputState {
+
+    // 一次性动作
+    static final int ACTION_FIRE = 1;
+    static final int ACTION_QUIT = 2;
+    static final int ACTION_RESTART = 3;
+    static final int ACTION_SAVE = 4; // 快速存档
+    static final int ACTION_LOAD = 5; // 读取快速存档
+
+    private static final int QUEUE_SIZE = 64; // 必须是 2 的幂
+    private static final int QUEUE_MASK = QUEUE_SIZE - 1;
+
+    // 当前按住的方向键，使用 World.INPUT_* 位
+    private final AtomicInteger held = new AtomicInteger();
+
+    private final int[] actions = new int[QUEUE_SIZE];
+    private volatile long head; // 只由消费者写
+    private volatile long tail; // 只由生产者写
+
+    // 事件线程：按下 / 松开方向键
+    public void press(int bits) {
+        held.getAndUpdate(h -> h | bits);
+    }
+
+    public void release(int bits) {
+        held.getAndUpdate(h -> h & ~bits);
+    }
+
+    // 失去焦点时收不到 keyReleased，全部松开避免“卡键”
+    public void releaseAll() {
+        held.set(0);
+    }
+
+    // 事件线程：加入一次性动作，队列满时丢弃
+    public void offer(int action) {
+        long t = tail;
+        if (t - head >= QUEUE_SIZE) return;
+        actions[(int) t & QUEUE_MASK] = action;
+        tail = t + 1;
+    }
+
+    // 模拟线程：本帧按住的方向键
+    public int held() {
+        return held.get();
+    }
+
+    // 模拟线程：取出一个动作，没有时返回 0
+    public int poll() {
+        long h = head;
+        if (h == tail) return 0;
+        int action = actions[(int) h & QUEUE_MASK];
+        head = h + 1;
+        return action;
+    }
+}
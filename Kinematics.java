@@ -0,0 +1,68 @@
+// 实体运动学内核：限速、按速度积分和边界反弹，直接处理 EntityPool 的坐标数组
+// 这里是标量实现，沿存活列表逐个处理；incubator/VectorKinematics 用 jdk.incubator.vector 做同样的计算，
+// 结果逐位相同（同样的单精度运算、同样的比较，没有融合乘加），可以随时互换
+//
+// 向量版需要单独编译并在运行时加上模块，否则自动退回标量版：
+//   javac --add-modules jdk.incubator.vector -cp out -d out incubator/VectorKinematics.java
+//   java --add-modules jdk.incubator.vector -cp out Shoot
+public class Kinematics {
+
+    static final Kinematics SCALAR = new Kinematics();
+    // 可用时为向量版
+    static final Kinematics DEFAULT = load();
+
+    private static Kinematics load() {
+        try {
+            Kinematics k = (Kinematics) Class.forName("VectorKinematics").getDeclaredConstructor().newInstance();
+            return k.supported() ? k : SCALAR;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return SCALAR; // 没有编译向量版，或者运行时没有加 --add-modules
+        }
+    }
+
+    // 当前硬件上是否值得使用（向量太短时向量 API 会退化成逐元素模拟）
+    boolean supported() {
+        return true;
+    }
+
+    String name() {
+        return "scalar";
+    }
+
+    // 速度两个分量各自限制在 [-max, max]
+    void clampSpeed(EntityPool pool, float max) {
+        for (int k = 0; k < pool.size; k++) {
+            int i = pool.live[k];
+            pool.vx[i] = Math.min(Math.max(pool.vx[i], -max), max);
+            pool.vy[i] = Math.min(Math.max(pool.vy[i], -max), max);
+        }
+    }
+
+    // 位置加上速度乘以 scale
+    void advance(EntityPool pool, float scale) {
+        for (int k = 0; k < pool.size; k++) {
+            int i = pool.live[k];
+            pool.x[i] += pool.vx[i] * scale;
+            pool.y[i] += pool.vy[i] * scale;
+        }
+    }
+
+    // 位置加上速度；大小为 w x h 的实体越出 [0, width] x [0, height] 时该轴速度反向
+    // 返回移动前速度的最大单轴分量
+    float moveAndBounce(EntityPool pool, float w, float h, int width, int height) {
+        float step = 0;
+        for (int k = 0; k < pool.size; k++) {
+            int i = pool.live[k];
+            pool.x[i] += pool.vx[i];
+            pool.y[i] += pool.vy[i];
+            step = Math.max(step, Math.max(Math.abs(pool.vx[i]), Math.abs(pool.vy[i])));
+            if (pool.x[i] < 0 || pool.x[i] + w > width) {
+                pool.vx[i] = -pool.vx[i];
+            }
+            if (pool.y[i] < 0 || pool.y[i] + h > height) {
+                pool.vy[i] = -pool.vy[i];
+            }
+        }
+        return step;
+    }
+}
@@ -0,0 +1,114 @@
+import java.util.SplittableRandom;
+
+// 运动学内核基准：标量版 vs 向量版（incubator/VectorKinematics），障碍物的限速 + 移动反弹与子弹积分
+// 每个用例先让两个内核从相同的初始状态各走若干帧，逐位比较全部坐标与速度，不一致时报错退出
+// 障碍物密度与默认 800x600 场地 20 个障碍物相同；density 为存活实体占池子容量的比例
+// 用法：java --add-modules jdk.incubator.vector -cp out KinematicsBench [--min-ms=200]
+public class KinematicsBench {
+
+    private static final int[] COUNTS = {300, 1000, 10_000, 100_000, 1_000_000};
+    private static final double[] DENSITIES = {1.0, 0.5};
+    private static final int CHECK_STEPS = 500;
+    private static final long WARMUP_NANOS = 2_000_000_000L;
+
+    static volatile float sink;
+
+    public static void main(String[] args) {
+        long minNanos = GameConfig.longOption(args, "min-ms", 200) * 1_000_000L;
+        Kinematics scalar = Kinematics.SCALAR;
+        Kinematics vector = Kinematics.DEFAULT;
+        if (vector == scalar) {
+            System.err.println("Vector kernel not available (compile incubator/VectorKinematics.java and run with "
+                    + "--add-modules jdk.incubator.vector); timing the scalar kernel only");
+        }
+
+        // 向量 API 在 C2 编译之前非常慢，先让两个内核都编译好
+        EntityPool warm = fill(1000, 1000, World.DEFAULT_WIDTH * 7, World.DEFAULT_HEIGHT * 7, new SplittableRandom(1));
+        time(() -> sink += obstacles(scalar, warm, World.DEFAULT_WIDTH * 7, World.DEFAULT_HEIGHT * 7), WARMUP_NANOS / 4);
+        time(() -> sink += obstacles(vector, warm, World.DEFAULT_WIDTH * 7, World.DEFAULT_HEIGHT * 7), WARMUP_NANOS / 4);
+        time(() -> scalar.advance(warm, World.ENEMY_BULLET_SPEED), WARMUP_NANOS / 4);
+        time(() -> vector.advance(warm, World.ENEMY_BULLET_SPEED), WARMUP_NANOS / 4);
+
+        System.out.println("kernel,entities,capacity,scalar_ns,vector_ns,speedup,ns_per_entity_scalar,ns_per_entity_vector");
+        for (double density : DENSITIES) {
+            for (int count : COUNTS) {
+                int capacity = (int) (count / density);
+                double scale = Math.sqrt(count / 20.0);
+                int width = (int) (World.DEFAULT_WIDTH * scale);
+                int height = (int) (World.DEFAULT_HEIGHT * scale);
+
+                EntityPool a = fill(count, capacity, width, height, new SplittableRandom(count * 31L + capacity));
+                EntityPool b = fill(count, capacity, width, height, new SplittableRandom(count * 31L + capacity));
+                for (int s = 0; s < CHECK_STEPS; s++) {
+                    obstacles(scalar, a, width, height);
+                    obstacles(vector, b, width, height);
+                    scalar.advance(a, World.BULLET_SPEED * 2);
+                    vector.advance(b, World.BULLET_SPEED * 2);
+                }
+                check(a, b, count);
+
+                double obsScalar = time(() -> sink += obstacles(scalar, a, width, height), minNanos);
+                double obsVector = time(() -> sink += obstacles(vector, b, width, height), minNanos);
+                print("obstacles", count, capacity, obsScalar, obsVector);
+
+                double bulletScalar = time(() -> scalar.advance(a, World.ENEMY_BULLET_SPEED), minNanos);
+                double bulletVector = time(() -> vector.advance(b, World.ENEMY_BULLET_SPEED), minNanos);
+                print("bullets", count, capacity, bulletScalar, bulletVector);
+            }
+        }
+    }
+
+    // 与 World.moveObstacles() 相同的两步：按默认分数档限速，再移动并反弹
+    private static float obstacles(Kinematics k, EntityPool pool, int width, int height) {
+        k.clampSpeed(pool, 3);
+        return k.moveAndBounce(pool, World.OBSTACLE_WIDTH, World.OBSTACLE_HEIGHT, width, height);
+    }
+
+    // 取出 capacity 个槽位后回收一部分，留下 count 个打散分布的存活实体
+    private static EntityPool fill(int count, int capacity, int width, int height, SplittableRandom random) {
+        EntityPool pool = new EntityPool(capacity);
+        for (int k = 0; k < capacity; k++) {
+            int i = pool.acquire();
+            pool.x[i] = (float) random.nextDouble(width - World.OBSTACLE_WIDTH);
+            pool.y[i] = (float) random.nextDouble(height - World.OBSTACLE_HEIGHT);
+            // 速度超过限速，让限速生效；空闲槽位里的值也必须保持不变
+            pool.vx[i] = (float) random.nextDouble(-5, 5);
+            pool.vy[i] = (float) random.nextDouble(-5, 5);
+        }
+        while (pool.size > count) {
+            pool.release(pool.live[random.nextInt(pool.size)]);
+        }
+        return pool;
+    }
+
+    private static void check(EntityPool a, EntityPool b, int count) {
+        for (int i = 0; i < a.capacity; i++) {
+            if (Float.floatToRawIntBits(a.x[i]) != Float.floatToRawIntBits(b.x[i])
+                    || Float.floatToRawIntBits(a.y[i]) != Float.floatToRawIntBits(b.y[i])
+                    || Float.floatToRawIntBits(a.vx[i]) != Float.floatToRawIntBits(b.vx[i])
+                    || Float.floatToRawIntBits(a.vy[i]) != Float.floatToRawIntBits(b.vy[i])) {
+                throw new IllegalStateException("kernel mismatch at slot " + i + " with " + count + " entities");
+            }
+        }
+    }
+
+    private static void print(String kernel, int count, int capacity, double scalarNs, double vectorNs) {
+        System.out.printf("%s,%d,%d,%.0f,%.0f,%.2f,%.3f,%.3f%n", kernel, count, capacity, scalarNs, vectorNs,
+                scalarNs / vectorNs, scalarNs / count, vectorNs / count);
+    }
+
+    // 预热后反复运行至少 minNanos，返回每次调用的平均纳秒数
+    private static double time(Runnable body, long minNanos) {
+        long warmupEnd = System.nanoTime() + minNanos / 2;
+        while (System.nanoTime() < warmupEnd) body.run();
+        long iterations = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            body.run();
+            iterations++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < minNanos);
+        return (double) elapsed / iterations;
+    }
+}
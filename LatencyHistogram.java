@@ -0,0 +1,69 @@
+import java.util.Arrays;
+
+// 延迟直方图（对数-线性分桶，类似 HdrHistogram）：每个 2 的幂区间再等分 32 份，相对误差约 3%
+// 记录只做几次位运算和一次数组自增，不分配内存；只允许一个线程写，其他线程读到的是近似值
+public class LatencyHistogram {
+
+    private static final int SUB_BITS = 5;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS + 1) * SUB_COUNT;
+
+    private final long[] counts = new long[BUCKETS];
+    private volatile long count;
+    private volatile long max;
+
+    // 其他线程请求清零，由写线程在下次记录时执行
+    private volatile boolean resetRequested;
+
+    public void record(long nanos) {
+        if (resetRequested) {
+            Arrays.fill(counts, 0);
+            count = 0;
+            max = 0;
+            resetRequested = false;
+        }
+        if (nanos < 0) nanos = 0;
+        counts[index(nanos)]++;
+        count = count + 1;
+        if (nanos > max) max = nanos;
+    }
+
+    public void reset() {
+        resetRequested = true;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public long max() {
+        return max;
+    }
+
+    // 第 p 百分位（0..100），返回所在桶的上界，没有数据时返回 0
+    public long percentile(double p) {
+        long total = count;
+        if (total == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(p / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) return Math.min(upperBound(i), max);
+        }
+        return max;
+    }
+
+    // 小于 32 的值各占一桶；否则按最高位所在的区间和其后 5 位定位
+    static int index(long v) {
+        if (v < SUB_COUNT) return (int) v;
+        int shift = 63 - Long.numberOfLeadingZeros(v) - SUB_BITS;
+        return ((shift + 1) << SUB_BITS) | (int) ((v >>> shift) & (SUB_COUNT - 1));
+    }
+
+    static long upperBound(int index) {
+        if (index < SUB_COUNT) return index;
+        int shift = (index >>> SUB_BITS) - 1;
+        long low = index & (SUB_COUNT - 1);
+        return ((SUB_COUNT + low + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,223 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.concurrent.locks.LockSupport;
+
+// 联网压力测试：在本机起一个 GameServer（或连接 --connect 指定的服务器），
+// 用一个线程和一个 Selector 驱动大量机器人客户端，每帧发随机输入、确认并解码状态包，
+// 最后报告每个客户端的上下行带宽和服务器每帧耗时
+//
+// 用法：java LoadTest [--clients=100] [--seconds=10] [--connect=主机[:端口]] [GameConfig 参数...]
+public class LoadTest {
+
+    private static final int HISTORY = 64;
+    private static final int REDUNDANT_INPUTS = 4;
+
+    // 一个机器人客户端
+    private static final class Bot {
+        final DatagramChannel channel;
+        int slot = -1;
+        NetState[] history;
+        int latestTick = -1;
+        int seq;
+        int appliedSeq;
+        final int[] pending = new int[HISTORY];
+        int held;
+        long bytesIn, bytesOut, states, decodeErrors;
+
+        Bot(DatagramChannel channel) {
+            this.channel = channel;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int clients = GameConfig.intOption(args, "clients", 100);
+        int seconds = GameConfig.intOption(args, "seconds", 10);
+        String connect = GameConfig.option(args, "connect", null);
+
+        GameServer server = null;
+        Thread serverThread = null;
+        InetSocketAddress address;
+        if (connect == null) {
+            GameConfig config = GameConfig.fromArgs(args);
+            config.players = clients;
+            server = new GameServer(config, 0);
+            serverThread = new Thread(server, "game-server");
+            serverThread.start();
+            address = new InetSocketAddress("127.0.0.1", server.port());
+        } else {
+            address = GameServer.address(connect);
+        }
+
+        Selector selector = Selector.open();
+        Bot[] bots = new Bot[clients];
+        for (int i = 0; i < clients; i++) {
+            DatagramChannel ch = DatagramChannel.open();
+            ch.configureBlocking(false);
+            ch.connect(address);
+            bots[i] = new Bot(ch);
+            ch.register(selector, SelectionKey.OP_READ, bots[i]);
+        }
+        ByteBuffer in = ByteBuffer.allocate(GameServer.MAX_PACKET).order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer out = ByteBuffer.allocate(GameServer.MAX_PACKET).order(ByteOrder.LITTLE_ENDIAN);
+        BitReader reader = new BitReader();
+        Rng rng = new Rng(42);
+
+        long tickNanos = handshake(selector, bots, in, out);
+        if (tickNanos < 0) {
+            System.err.println("Failed to connect all " + clients + " clients to " + address);
+            if (server != null) server.stop();
+            return;
+        }
+        System.out.println(clients + " clients connected to " + address);
+        if (server != null) {
+            server.tickTimes.reset();
+            server.encodeTimes.reset();
+        }
+
+        long start = System.nanoTime();
+        long end = start + seconds * 1_000_000_000L;
+        long next = start;
+        while (System.nanoTime() < end) {
+            long wait = next - System.nanoTime();
+            if (wait > 0) LockSupport.parkNanos(wait);
+            next += tickNanos;
+
+            drain(selector, in, reader);
+            for (Bot bot : bots) {
+                // 每个机器人平均半秒换一次方向，偶尔开火
+                if (rng.nextDouble() < 1.0 / 30) bot.held = (int) (rng.nextDouble() * 16);
+                int input = bot.held | (rng.nextDouble() < 0.1 ? World.INPUT_FIRE : 0)
+                        | (rng.nextDouble() < 0.005 ? World.INPUT_RESTART : 0);
+                bot.seq++;
+                bot.pending[bot.seq % HISTORY] = input;
+                int count = Math.max(1, Math.min(REDUNDANT_INPUTS, bot.seq - bot.appliedSeq));
+                out.clear();
+                out.put(GameServer.INPUT);
+                out.putInt(bot.latestTick);
+                out.put((byte) count);
+                for (int s = bot.seq - count + 1; s <= bot.seq; s++) {
+                    out.putInt(s);
+                    out.put((byte) bot.pending[s % HISTORY]);
+                }
+                out.flip();
+                bot.bytesOut += bot.channel.write(out);
+            }
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        if (server != null) {
+            System.out.println("server: " + server.stats());
+        }
+        long bytesIn = 0, bytesOut = 0, states = 0, errors = 0;
+        for (Bot bot : bots) {
+            bytesIn += bot.bytesIn;
+            bytesOut += bot.bytesOut;
+            states += bot.states;
+            errors += bot.decodeErrors;
+            out.clear();
+            out.put(GameServer.BYE).flip();
+            bot.channel.write(out);
+            bot.channel.close();
+        }
+        selector.close();
+
+        System.out.printf("per client: down %.0f B/s (%.1f B/state, %.1f states/s)  up %.0f B/s  decode errors %d%n",
+                bytesIn / elapsed / clients, (double) bytesIn / Math.max(1, states),
+                states / elapsed / clients, bytesOut / elapsed / clients, errors);
+        if (server != null) {
+            server.stop();
+            try {
+                serverThread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // 所有机器人重发 HELLO 直到都收到 WELCOME，返回服务器的每帧纳秒，超时返回 -1
+    private static long handshake(Selector selector, Bot[] bots, ByteBuffer in, ByteBuffer out) throws IOException {
+        long tickNanos = -1;
+        int welcomed = 0;
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (welcomed < bots.length && System.nanoTime() < deadline) {
+            for (Bot bot : bots) {
+                if (bot.slot >= 0) continue;
+                out.clear();
+                GameServer.putHello(out);
+                out.flip();
+                bot.channel.write(out);
+            }
+            selector.select(200);
+            Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+            while (it.hasNext()) {
+                Bot bot = (Bot) it.next().attachment();
+                it.remove();
+                while (true) {
+                    in.clear();
+                    if (bot.channel.read(in) <= 0) break;
+                    in.flip();
+                    byte type = in.get();
+                    if (type == GameServer.FULL) return -1;
+                    if (type != GameServer.WELCOME || bot.slot >= 0) continue;
+                    in.getInt(); // 版本
+                    bot.slot = in.get() & 0xFF;
+                    GameConfig config = new GameConfig();
+                    config.players = in.getInt();
+                    config.maxObstacles = in.getInt();
+                    config.maxPlayerBullets = in.getInt();
+                    config.maxEnemyBullets = in.getInt();
+                    in.getInt(); // 宽
+                    in.getInt(); // 高
+                    tickNanos = in.getLong();
+                    bot.history = new NetState[HISTORY];
+                    for (int i = 0; i < HISTORY; i++) {
+                        bot.history[i] = new NetState(config);
+                    }
+                    welcomed++;
+                }
+            }
+        }
+        return welcomed == bots.length ? tickNanos : -1;
+    }
+
+    // 读出所有到达的状态包并解码
+    private static void drain(Selector selector, ByteBuffer in, BitReader reader) throws IOException {
+        selector.selectNow();
+        Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+        while (it.hasNext()) {
+            Bot bot = (Bot) it.next().attachment();
+            it.remove();
+            while (true) {
+                in.clear();
+                int n = bot.channel.read(in);
+                if (n <= 0) break;
+                bot.bytesIn += n;
+                in.flip();
+                if (in.get() != GameServer.STATE) continue;
+                int tick = in.getInt();
+                int base = in.getInt();
+                int applied = in.getInt();
+                if (tick <= bot.latestTick) continue;
+                NetState baseState = base < 0 ? null : bot.history[base % HISTORY];
+                if (baseState != null && baseState.tick != base) continue;
+                try {
+                    reader.begin(in);
+                    bot.history[tick % HISTORY].decode(baseState, reader, tick);
+                } catch (RuntimeException e) {
+                    bot.decodeErrors++;
+                    bot.history[tick % HISTORY].tick = -1;
+                    continue;
+                }
+                bot.latestTick = tick;
+                bot.appliedSeq = applied;
+                bot.states++;
+            }
+        }
+    }
+}
@@ -0,0 +1,249 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// 蒙特卡洛树搜索玩家：每帧从当前世界出发做大量随机推演，选访问次数最多的动作
+// 五个动作：四个方向（移动同时开火）和原地开火，树中每个动作连续执行 REPEAT 帧以看得更远
+// 根并行：每个工作线程在自己的草稿世界里独立建树，结束后把根节点各动作的访问次数相加
+// 草稿世界通过 World.copyFrom() 整体复制，树节点放在预分配数组里，搜索过程不分配内存
+//
+// 用法：java MctsBot [--games=5] [--threads=N] [--budget-ms=20] [--rollouts=0] [--max-ticks=20000] [GameConfig 参数...]
+//   --rollouts 大于 0 时每个线程每帧做固定次数的推演（结果可复现），否则按时间预算搜索
+public class MctsBot implements Policy, AutoCloseable {
+
+    private static final int[] ACTIONS = {
+            World.INPUT_LEFT | World.INPUT_FIRE,
+            World.INPUT_RIGHT | World.INPUT_FIRE,
+            World.INPUT_UP | World.INPUT_FIRE,
+            World.INPUT_DOWN | World.INPUT_FIRE,
+            World.INPUT_FIRE,
+    };
+    private static final int REPEAT = 4; // 树中每个动作持续的帧数
+    private static final int MAX_DEPTH = 8; // 树的最大深度（动作数）
+    private static final int HORIZON = 48; // 一次推演看多少帧
+    private static final int MAX_NODES = 1 << 16;
+    private static final double EXPLORATION = 0.7;
+    private static final double HIT_PENALTY = 0.3; // 每被敌方子弹打中一次扣的分
+
+    // 一个搜索线程：自己的根世界、草稿世界和树
+    private static final class Worker implements Callable<Void> {
+        final World root;
+        final World scratch;
+        final Rng rng;
+        final int[] firstChild = new int[MAX_NODES];
+        final int[] visits = new int[MAX_NODES];
+        final double[] value = new double[MAX_NODES];
+        final int[] path = new int[MAX_DEPTH + 2];
+        int nodeCount;
+
+        long deadline;
+        int rolloutLimit;
+        long rollouts; // 累计推演次数
+
+        Worker(GameConfig config, long seed) {
+            root = new World(config, seed);
+            scratch = new World(config, seed);
+            rng = new Rng(seed);
+        }
+
+        @Override
+        public Void call() {
+            nodeCount = 1;
+            firstChild[0] = -1;
+            visits[0] = 0;
+            value[0] = 0;
+            int done = 0;
+            // 每 8 次检查一次时间
+            while (rolloutLimit > 0 ? done < rolloutLimit : (done & 7) != 0 || System.nanoTime() < deadline) {
+                iterate();
+                done++;
+            }
+            rollouts += done;
+            return null;
+        }
+
+        private void iterate() {
+            scratch.copyFrom(root);
+            int hitsBefore = scratch.playerHitCount;
+            int node = 0;
+            int depth = 0;
+            int ticks = 0;
+            path[0] = 0;
+            boolean dead = false;
+
+            // 选择：沿 UCT 最大的子节点向下
+            while (firstChild[node] >= 0 && !dead) {
+                int a = select(node);
+                node = firstChild[node] + a;
+                path[++depth] = node;
+                dead = play(ACTIONS[a], REPEAT);
+                ticks += REPEAT;
+            }
+            // 扩展：第二次访问到叶子时生成全部子节点，随机走一步
+            if (!dead && visits[node] > 0 && depth < MAX_DEPTH && nodeCount + ACTIONS.length <= MAX_NODES) {
+                firstChild[node] = nodeCount;
+                for (int a = 0; a < ACTIONS.length; a++) {
+                    firstChild[nodeCount + a] = -1;
+                    visits[nodeCount + a] = 0;
+                    value[nodeCount + a] = 0;
+                }
+                nodeCount += ACTIONS.length;
+                int a = (int) (rng.nextDouble() * ACTIONS.length);
+                node = firstChild[node] + a;
+                path[++depth] = node;
+                dead = play(ACTIONS[a], REPEAT);
+                ticks += REPEAT;
+            }
+            // 推演：随机动作走完剩余的帧数
+            while (!dead && ticks < HORIZON) {
+                dead = play(ACTIONS[(int) (rng.nextDouble() * ACTIONS.length)], REPEAT);
+                ticks += REPEAT;
+            }
+
+            // 存活得越久越好，被子弹打中扣分；死亡时只计存活的部分
+            double reward = (dead ? (double) Math.min(ticks, HORIZON) / HORIZON * 0.5 : 1.0)
+                    - HIT_PENALTY * (scratch.playerHitCount - hitsBefore);
+            for (int d = 0; d <= depth; d++) {
+                visits[path[d]]++;
+                value[path[d]] += reward;
+            }
+        }
+
+        private int select(int node) {
+            int first = firstChild[node];
+            double logN = Math.log(Math.max(1, visits[node]));
+            int best = 0;
+            double bestScore = Double.NEGATIVE_INFINITY;
+            for (int a = 0; a < ACTIONS.length; a++) {
+                int c = first + a;
+                if (visits[c] == 0) return a; // 先把每个动作都试一次
+                double score = value[c] / visits[c] + EXPLORATION * Math.sqrt(logN / visits[c]);
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = a;
+                }
+            }
+            return best;
+        }
+
+        // 在草稿世界里按住 input 走 n 帧，玩家出局时返回 true
+        private boolean play(int input, int n) {
+            for (int i = 0; i < n; i++) {
+                scratch.step(input);
+                if (scratch.gameOver || !scratch.player.active) return true;
+            }
+            return false;
+        }
+    }
+
+    private final Worker[] workers;
+    private final List<Worker> tasks = new ArrayList<>();
+    private final ExecutorService pool;
+    private final long budgetNanos;
+    private final int rolloutsPerWorker;
+    private final long[] actionVisits = new long[ACTIONS.length];
+
+    // 统计：每帧决策耗时，总推演次数与总搜索时间
+    final LatencyHistogram decisionTimes = new LatencyHistogram();
+    private long searchNanos;
+
+    // budgetNanos 为每帧的搜索时间；rolloutsPerWorker 大于 0 时改为每线程固定推演次数
+    public MctsBot(GameConfig config, long seed, int threads, long budgetNanos, int rolloutsPerWorker) {
+        this.budgetNanos = budgetNanos;
+        this.rolloutsPerWorker = rolloutsPerWorker;
+        workers = new Worker[Math.max(1, threads)];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = new Worker(config, seed + 0x9E3779B97F4A7C15L * (i + 1));
+            tasks.add(workers[i]);
+        }
+        pool = Executors.newFixedThreadPool(workers.length, r -> {
+            Thread t = new Thread(r, "mcts");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @Override
+    public int input(World world) {
+        long start = System.nanoTime();
+        for (Worker w : workers) {
+            w.root.copyFrom(world);
+            w.deadline = start + budgetNanos;
+            w.rolloutLimit = rolloutsPerWorker;
+        }
+        try {
+            for (Future<Void> f : pool.invokeAll(tasks)) {
+                f.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return World.INPUT_FIRE;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("search failed", e.getCause());
+        }
+
+        for (int a = 0; a < ACTIONS.length; a++) {
+            actionVisits[a] = 0;
+            for (Worker w : workers) {
+                if (w.firstChild[0] >= 0) actionVisits[a] += w.visits[w.firstChild[0] + a];
+            }
+        }
+        int best = ACTIONS.length - 1;
+        for (int a = 0; a < ACTIONS.length; a++) {
+            if (actionVisits[a] > actionVisits[best]) best = a;
+        }
+        long elapsed = System.nanoTime() - start;
+        decisionTimes.record(elapsed);
+        searchNanos += elapsed;
+        return ACTIONS[best];
+    }
+
+    public long rollouts() {
+        long n = 0;
+        for (Worker w : workers) n += w.rollouts;
+        return n;
+    }
+
+    // 搜索期间每秒完成的推演次数（所有线程合计）
+    public double rolloutsPerSecond() {
+        return searchNanos == 0 ? 0 : rollouts() * 1e9 / searchNanos;
+    }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    public static void main(String[] args) {
+        int games = GameConfig.intOption(args, "games", 5);
+        int threads = GameConfig.intOption(args, "threads", Runtime.getRuntime().availableProcessors());
+        long budgetMs = GameConfig.longOption(args, "budget-ms", 20);
+        int rollouts = GameConfig.intOption(args, "rollouts", 0);
+        long maxTicks = GameConfig.longOption(args, "max-ticks", 20_000);
+        GameConfig config = GameConfig.fromArgs(args);
+        long baseSeed = config.seed != 0 ? config.seed : 1;
+
+        System.out.println("game,ticks,score,outcome,hits,rollouts_per_sec,rollouts_per_tick,decision_p50_ms,decision_p99_ms");
+        for (int g = 0; g < games; g++) {
+            long seed = BatchRunner.gameSeed(baseSeed, g);
+            World world = new World(config, seed);
+            try (MctsBot bot = new MctsBot(config, seed, threads, budgetMs * 1_000_000, rollouts)) {
+                long ticks = 0;
+                while (!world.gameOver && ticks < maxTicks) {
+                    world.step(bot.input(world));
+                    ticks++;
+                }
+                String outcome = !world.gameOver ? "survived"
+                        : world.playerHitCount >= config.hitLimit ? "shot" : "collision";
+                System.out.printf(Locale.ROOT, "%d,%d,%d,%s,%d,%.0f,%.0f,%.2f,%.2f%n", g, ticks, world.score, outcome,
+                        world.playerHitCount, bot.rolloutsPerSecond(), (double) bot.rollouts() / Math.max(1, ticks),
+                        bot.decisionTimes.percentile(50) / 1e6, bot.decisionTimes.percentile(99) / 1e6);
+            }
+        }
+    }
+}
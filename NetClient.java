@@ -0,0 +1,272 @@
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.DatagramChannel;
+import java.util.concurrent.locks.LockSupport;
+
+// 联网客户端：替代本地 GameLoop 驱动界面，只负责收发和显示，世界由 GameServer 推进
+// 每帧把本机输入带上序号发给服务器（连同最近几条一起重发以抵抗丢包），并确认最后解出的状态帧；
+// 本机玩家做客户端预测：取服务器位置，再重放服务器尚未应用的输入，其他实体直接显示服务器状态
+public class NetClient implements Simulation {
+
+    private static final int HISTORY = 64; // 与服务器一致，保存最近的状态作为增量基准
+    private static final int PENDING = 64; // 未确认输入的环形缓冲
+    private static final int REDUNDANT_INPUTS = 4;
+    private static final int HELLO_RETRY_MS = 200;
+    private static final int MAX_CATCH_UP_TICKS = 5;
+
+    private final DatagramChannel channel;
+    private final GameConfig config;
+    private final StateExchange exchange;
+    private final int slot;
+
+    private final InputState inputs = new InputState();
+    private volatile boolean running = true;
+
+    private final NetState[] history = new NetState[HISTORY];
+    private int latestTick = -1;
+    private int previousTick = -1;
+    private int serverAppliedSeq;
+
+    private final int[] pendingBits = new int[PENDING];
+    private int seq;
+
+    // 本机玩家的预测位置
+    private final World.Player predicted = new World.Player();
+    private int highScore;
+
+    private final BitReader bitReader = new BitReader();
+    private final ByteBuffer in = ByteBuffer.allocate(GameServer.MAX_PACKET).order(ByteOrder.LITTLE_ENDIAN);
+    private final ByteBuffer out = ByteBuffer.allocate(GameServer.MAX_PACKET).order(ByteOrder.LITTLE_ENDIAN);
+
+    // 统计
+    volatile long bytesReceived;
+    volatile long statesReceived;
+
+    private NetClient(DatagramChannel channel, GameConfig config, int slot) {
+        this.channel = channel;
+        this.config = config;
+        this.slot = slot;
+        exchange = new StateExchange(config);
+        for (int i = 0; i < HISTORY; i++) {
+            history[i] = new NetState(config);
+        }
+    }
+
+    // 握手：重发 HELLO 直到收到 WELCOME，超时或服务器已满时抛出 IOException
+    public static NetClient connect(String host, int port, long timeoutMillis) throws IOException {
+        DatagramChannel channel = DatagramChannel.open();
+        try {
+            channel.connect(new InetSocketAddress(host, port));
+            channel.socket().setSoTimeout(HELLO_RETRY_MS);
+            ByteBuffer buf = ByteBuffer.allocate(GameServer.MAX_PACKET).order(ByteOrder.LITTLE_ENDIAN);
+            // 阻塞模式下通过 socket 适配器读才会遵守超时
+            DatagramPacket packet = new DatagramPacket(new byte[GameServer.MAX_PACKET], GameServer.MAX_PACKET);
+            long deadline = System.nanoTime() + timeoutMillis * 1_000_000;
+            while (System.nanoTime() < deadline) {
+                buf.clear();
+                GameServer.putHello(buf);
+                buf.flip();
+                channel.write(buf);
+                buf.clear();
+                try {
+                    channel.socket().receive(packet);
+                    buf.put(packet.getData(), 0, packet.getLength()).flip();
+                } catch (SocketTimeoutException e) {
+                    continue;
+                }
+                byte type = buf.get();
+                if (type == GameServer.FULL) throw new IOException("server is full");
+                if (type != GameServer.WELCOME || buf.getInt() != GameServer.PROTOCOL_VERSION) continue;
+                int slot = buf.get() & 0xFF;
+                GameConfig config = new GameConfig();
+                config.players = buf.getInt();
+                config.maxObstacles = buf.getInt();
+                config.maxPlayerBullets = buf.getInt();
+                config.maxEnemyBullets = buf.getInt();
+                config.width = buf.getInt();
+                config.height = buf.getInt();
+                config.tickNanos = buf.getLong();
+                channel.configureBlocking(false);
+                return new NetClient(channel, config, slot);
+            }
+            throw new IOException("no answer from " + host + ":" + port);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public GameConfig config() {
+        return config;
+    }
+
+    public StateExchange exchange() {
+        return exchange;
+    }
+
+    public int slot() {
+        return slot;
+    }
+
+    @Override
+    public InputState inputs() {
+        return inputs;
+    }
+
+    @Override
+    public long tickNanos() {
+        return config.tickNanos;
+    }
+
+    // 场地尺寸由服务器决定
+    @Override
+    public void resize(int width, int height) {
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public void run() {
+        long tickNanos = config.tickNanos;
+        long simTime = System.nanoTime();
+        try {
+            while (running) {
+                long now = System.nanoTime();
+                int ticks = 0;
+                while (now - simTime >= tickNanos && ticks < MAX_CATCH_UP_TICKS) {
+                    simTime += tickNanos;
+                    tick();
+                    ticks++;
+                }
+                if (ticks == MAX_CATCH_UP_TICKS && now - simTime >= tickNanos) {
+                    simTime = now;
+                }
+                if (ticks > 0) {
+                    publish(simTime);
+                }
+                long sleep = simTime + tickNanos - System.nanoTime();
+                if (sleep > 0) {
+                    LockSupport.parkNanos(this, sleep);
+                }
+            }
+            out.clear();
+            out.put(GameServer.BYE).flip();
+            channel.write(out);
+        } catch (IOException e) {
+            System.err.println("Failed to talk to game server: " + e.getMessage());
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                System.err.println("Failed to close client socket");
+            }
+        }
+    }
+
+    private void tick() throws IOException {
+        receive();
+
+        int input = inputs.held();
+        for (int action = inputs.poll(); action != 0; action = inputs.poll()) {
+            switch (action) {
+                case InputState.ACTION_FIRE:
+                    input |= World.INPUT_FIRE;
+                    break;
+                case InputState.ACTION_QUIT:
+                    input |= World.INPUT_QUIT;
+                    break;
+                case InputState.ACTION_RESTART:
+                    input |= World.INPUT_RESTART;
+                    break;
+                default:
+                    break; // 存档读档只在本地游戏中可用
+            }
+        }
+        seq++;
+        pendingBits[seq % PENDING] = input;
+        sendInputs();
+    }
+
+    // 取出所有到达的状态包，只保留比当前更新的帧
+    private void receive() throws IOException {
+        while (true) {
+            in.clear();
+            int n = channel.read(in);
+            if (n <= 0) return;
+            bytesReceived += n;
+            in.flip();
+            if (in.get() != GameServer.STATE) continue;
+            int tick = in.getInt();
+            int base = in.getInt();
+            int applied = in.getInt();
+            if (tick <= latestTick) continue;
+            NetState baseState = base < 0 ? null : history[base % HISTORY];
+            if (baseState != null && baseState.tick != base) continue; // 基准已被覆盖，等服务器发完整状态
+            try {
+                bitReader.begin(in);
+                history[tick % HISTORY].decode(baseState, bitReader, tick);
+            } catch (RuntimeException e) {
+                history[tick % HISTORY].tick = -1;
+                continue;
+            }
+            previousTick = latestTick;
+            latestTick = tick;
+            serverAppliedSeq = applied;
+            statesReceived++;
+        }
+    }
+
+    private void sendInputs() throws IOException {
+        int count = Math.max(1, Math.min(REDUNDANT_INPUTS, seq - serverAppliedSeq));
+        out.clear();
+        out.put(GameServer.INPUT);
+        out.putInt(latestTick);
+        out.put((byte) count);
+        for (int s = seq - count + 1; s <= seq; s++) {
+            out.putInt(s);
+            out.put((byte) pendingBits[s % PENDING]);
+        }
+        out.flip();
+        channel.write(out);
+    }
+
+    // 预测本机玩家并发布渲染快照
+    private void publish(long simTime) {
+        if (latestTick < 0) return;
+        NetState state = history[latestTick % HISTORY];
+        NetState prev = previousTick >= 0 && history[previousTick % HISTORY].tick == previousTick
+                ? history[previousTick % HISTORY] : null;
+
+        predicted.px = predicted.x;
+        predicted.py = predicted.y;
+        if (state.alive[slot]) {
+            predicted.x = NetState.dequantize(state.qx[slot]);
+            predicted.y = NetState.dequantize(state.qy[slot]);
+            // 服务器最多积压 PENDING 条，更早的输入已经不可能未应用
+            for (int s = Math.max(serverAppliedSeq + 1, seq - PENDING + 1); s <= seq; s++) {
+                World.move(predicted, pendingBits[s % PENDING], config.width, config.height);
+            }
+        }
+
+        RenderState r = exchange.backBuffer();
+        state.toRenderState(prev, slot, r);
+        highScore = Math.max(highScore, state.score);
+        r.width = config.width;
+        r.height = config.height;
+        r.playerX = predicted.x;
+        r.playerY = predicted.y;
+        r.playerPrevX = predicted.px;
+        r.playerPrevY = predicted.py;
+        r.highScore = highScore;
+        r.tick = state.tick;
+        r.simTimeNanos = simTime;
+        exchange.publish();
+    }
+}
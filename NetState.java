@@ -0,0 +1,181 @@
+// 网络同步用的量化世界状态：所有玩家槽位和实体池槽位排成一张表，每项为是否在场 + 量化坐标
+// 坐标量化到 1/4 像素并偏移后存成 16 位无符号数；相对基准状态做增量编码：
+//   未变化的项只占 1 位；变化的项写在场位，在场时若与基准的差值能放进 8 位就写差值，否则写完整坐标
+public class NetState {
+
+    static final int QUANT = 4; // 每像素的量化级数
+    private static final int OFFSET = 1024; // 允许略小于 0 的坐标（障碍物反弹前）
+    private static final int COORD_BITS = 16;
+    private static final int COORD_MAX = (1 << COORD_BITS) - 1;
+    private static final int DELTA_BITS = 8;
+    private static final int DELTA_MAX = (1 << (DELTA_BITS - 1)) - 1;
+
+    final int playerSlots;
+    final int obstacleBase; // 表中各类实体的起始下标
+    final int playerBulletBase;
+    final int enemyBulletBase;
+    final int entries;
+
+    int tick = -1;
+    int score;
+    boolean gameOver;
+    boolean protectionOn;
+
+    final boolean[] alive;
+    final int[] qx;
+    final int[] qy;
+
+    public NetState(GameConfig config) {
+        playerSlots = Math.max(1, config.players);
+        obstacleBase = playerSlots;
+        playerBulletBase = obstacleBase + config.maxObstacles;
+        enemyBulletBase = playerBulletBase + config.maxPlayerBullets;
+        entries = enemyBulletBase + config.maxEnemyBullets;
+        alive = new boolean[entries];
+        qx = new int[entries];
+        qy = new int[entries];
+    }
+
+    static int quantize(float v) {
+        return Math.max(0, Math.min(COORD_MAX, Math.round(v * QUANT) + OFFSET));
+    }
+
+    static float dequantize(int q) {
+        return (float) (q - OFFSET) / QUANT;
+    }
+
+    // 从权威世界采样
+    public void capture(World world, int tick) {
+        this.tick = tick;
+        score = world.score;
+        gameOver = world.gameOver;
+        protectionOn = world.protectionOn;
+        for (int i = 0; i < playerSlots; i++) {
+            World.Player p = world.players[i];
+            boolean inPlay = p.joined && (p.active || world.gameOver);
+            set(i, inPlay, p.x, p.y);
+        }
+        capture(world.obstacles, obstacleBase);
+        capture(world.playerBullets, playerBulletBase);
+        capture(world.enemyBullets, enemyBulletBase);
+    }
+
+    private void capture(EntityPool pool, int base) {
+        for (int i = 0; i < pool.capacity; i++) {
+            set(base + i, false, 0, 0);
+        }
+        for (int k = 0; k < pool.size; k++) {
+            int i = pool.live[k];
+            set(base + i, true, pool.x[i], pool.y[i]);
+        }
+    }
+
+    private void set(int e, boolean inPlay, float x, float y) {
+        alive[e] = inPlay;
+        qx[e] = inPlay ? quantize(x) : 0;
+        qy[e] = inPlay ? quantize(y) : 0;
+    }
+
+    public void copyFrom(NetState other) {
+        tick = other.tick;
+        score = other.score;
+        gameOver = other.gameOver;
+        protectionOn = other.protectionOn;
+        System.arraycopy(other.alive, 0, alive, 0, entries);
+        System.arraycopy(other.qx, 0, qx, 0, entries);
+        System.arraycopy(other.qy, 0, qy, 0, entries);
+    }
+
+    // 相对 base 编码（base 为 null 时相对空状态，即完整状态）
+    public void encode(NetState base, BitWriter out) {
+        out.write(score, 32);
+        out.writeBit(gameOver);
+        out.writeBit(protectionOn);
+        for (int e = 0; e < entries; e++) {
+            boolean baseAlive = base != null && base.alive[e];
+            boolean changed = alive[e] != baseAlive
+                    || (alive[e] && (qx[e] != base.qx[e] || qy[e] != base.qy[e]));
+            out.writeBit(changed);
+            if (!changed) continue;
+            out.writeBit(alive[e]);
+            if (!alive[e]) continue;
+            if (baseAlive) {
+                int dx = qx[e] - base.qx[e];
+                int dy = qy[e] - base.qy[e];
+                if (Math.abs(dx) <= DELTA_MAX && Math.abs(dy) <= DELTA_MAX) {
+                    out.writeBit(true);
+                    out.write(dx, DELTA_BITS);
+                    out.write(dy, DELTA_BITS);
+                    continue;
+                }
+            }
+            out.writeBit(false);
+            out.write(qx[e], COORD_BITS);
+            out.write(qy[e], COORD_BITS);
+        }
+        out.end();
+    }
+
+    // 解出 base + 增量，写入本对象（base 可以为 null，但不能是 this）
+    public void decode(NetState base, BitReader in, int tick) {
+        this.tick = tick;
+        score = in.read(32);
+        gameOver = in.readBit();
+        protectionOn = in.readBit();
+        for (int e = 0; e < entries; e++) {
+            boolean baseAlive = base != null && base.alive[e];
+            if (!in.readBit()) {
+                alive[e] = baseAlive;
+                qx[e] = baseAlive ? base.qx[e] : 0;
+                qy[e] = baseAlive ? base.qy[e] : 0;
+                continue;
+            }
+            alive[e] = in.readBit();
+            if (!alive[e]) {
+                qx[e] = 0;
+                qy[e] = 0;
+            } else if (in.readBit()) {
+                qx[e] = base.qx[e] + in.readSigned(DELTA_BITS);
+                qy[e] = base.qy[e] + in.readSigned(DELTA_BITS);
+            } else {
+                qx[e] = in.read(COORD_BITS);
+                qy[e] = in.read(COORD_BITS);
+            }
+        }
+    }
+
+    // 填充渲染快照：prev 为上一次显示的状态（用于插值，可为 null），self 为本机玩家槽位
+    public void toRenderState(NetState prev, int self, RenderState out) {
+        out.score = score;
+        out.gameOver = gameOver;
+        out.protectionOn = protectionOn;
+        int o = 0;
+        for (int i = 0; i < playerSlots; i++) {
+            if (i == self || !alive[i]) continue;
+            o = put(out.otherPlayers, o, prev, i);
+        }
+        out.otherPlayerCount = o / RenderState.STRIDE;
+        out.obstacleCount = copy(out.obstacles, prev, obstacleBase, playerBulletBase);
+        out.playerBulletCount = copy(out.playerBullets, prev, playerBulletBase, enemyBulletBase);
+        out.enemyBulletCount = copy(out.enemyBullets, prev, enemyBulletBase, entries);
+    }
+
+    private int copy(float[] dst, NetState prev, int from, int to) {
+        int o = 0;
+        for (int e = from; e < to; e++) {
+            if (alive[e]) o = put(dst, o, prev, e);
+        }
+        return o / RenderState.STRIDE;
+    }
+
+    private int put(float[] dst, int o, NetState prev, int e) {
+        float x = dequantize(qx[e]);
+        float y = dequantize(qy[e]);
+        boolean interpolate = prev != null && prev.alive[e];
+        dst[o] = x;
+        dst[o + 1] = y;
+        dst[o + 2] = interpolate ? dequantize(prev.qx[e]) : x;
+        dst[o + 3] = interpolate ? dequantize(prev.qy[e]) : y;
+        return o + RenderState.STRIDE;
+    }
+}
@@ -0,0 +1,80 @@
+import java.util.Locale;
+
+// 多核帧更新基准：同一个大世界分别用 1、2、4…个线程更新，报告每帧耗时和相对单线程的加速比
+// 每个线程数先从相同状态走若干帧并逐帧比较摘要，与单线程不同时报错退出
+// 实体池每 BATCH 帧重新装满（不计时），护盾常开，测量期间不会 Game Over
+// 用法：java ParallelBench [--threads=1,2,4,8,16] [--min-ms=2000] [GameConfig 参数...]
+//   默认 4000x3000 场地、3000 个障碍物、8192 颗玩家子弹、60000 颗敌方子弹
+public class ParallelBench {
+
+    private static final int BATCH = 16;
+    private static final int CHECK_TICKS = 200;
+
+    public static void main(String[] args) {
+        int[] threadCounts = GameConfig.intsOption(args, "threads", new int[]{1, 2, 4, 8, 16});
+        long minNanos = GameConfig.longOption(args, "min-ms", 2000) * 1_000_000L;
+        String[] defaults = {"--width=4000", "--height=3000", "--obstacles=3000", "--player-bullets=8192",
+                "--enemy-bullets=60000"};
+        String[] all = new String[defaults.length + args.length];
+        System.arraycopy(defaults, 0, all, 0, defaults.length);
+        System.arraycopy(args, 0, all, defaults.length, args.length);
+        long seed = 1;
+
+        // 单线程的逐帧摘要作为参照
+        World reference = world(all, 1, seed);
+        long[] expected = new long[CHECK_TICKS];
+        for (int t = 0; t < CHECK_TICKS; t++) {
+            reference.step(input(t));
+            expected[t] = reference.checksum();
+        }
+
+        System.out.println("# cpus=" + Runtime.getRuntime().availableProcessors() + " obstacles=" + reference.obstacles.capacity
+                + " player_bullets=" + reference.playerBullets.capacity + " enemy_bullets=" + reference.enemyBullets.capacity);
+        System.out.println("threads,ticks,ms_per_tick,speedup");
+        double baseline = 0;
+        for (int threads : threadCounts) {
+            World world = world(all, threads, seed);
+            for (int t = 0; t < CHECK_TICKS; t++) {
+                world.step(input(t));
+                if (world.checksum() != expected[t]) {
+                    throw new IllegalStateException(threads + " threads diverged from the sequential tick at tick " + t);
+                }
+            }
+
+            // 预热后计时
+            run(world, seed, minNanos / 4);
+            long[] result = run(world, seed, minNanos);
+            double ms = result[1] / 1e6 / result[0];
+            if (baseline == 0) baseline = ms;
+            System.out.printf(Locale.ROOT, "%d,%d,%.3f,%.2f%n", threads, result[0], ms, baseline / ms);
+        }
+    }
+
+    private static World world(String[] args, int threads, long seed) {
+        GameConfig config = GameConfig.fromArgs(args);
+        config.tickThreads = threads;
+        World world = new World(config, seed);
+        Bench.populate(world, seed);
+        return world;
+    }
+
+    // 开火并缓慢绕圈移动
+    private static int input(long tick) {
+        int[] dirs = {World.INPUT_LEFT, World.INPUT_UP, World.INPUT_RIGHT, World.INPUT_DOWN};
+        return dirs[(int) (tick / 40 % 4)] | World.INPUT_FIRE;
+    }
+
+    // 返回 {帧数, 纳秒}
+    private static long[] run(World world, long seed, long minNanos) {
+        long ticks = 0;
+        long elapsed = 0;
+        while (elapsed < minNanos) {
+            Bench.populate(world, seed + ticks);
+            long start = System.nanoTime();
+            for (int i = 0; i < BATCH; i++) world.step(input(ticks + i));
+            elapsed += System.nanoTime() - start;
+            ticks += BATCH;
+        }
+        return new long[]{ticks, elapsed};
+    }
+}
@@ -0,0 +1,109 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// 多核帧更新：把一个实体池的存活列表切成若干段，在 ForkJoin 线程池里并行移动并做碰撞检测
+// 各段只读共享状态（障碍物网格、玩家），需要改动共享状态的结果（命中、出界回收）记到本段的事件缓冲里，
+// 随后由 World 在调用线程里按顺序更新的遍历顺序合并，所以结果与单线程逐位相同，与线程数和分段方式无关
+// 同样线程数的世界共用一个线程池；分段和缓冲属于各自的世界，热身后不再分配内存
+public class ParallelTick {
+
+    static final int PLAYER_BULLETS = 0;
+    static final int ENEMY_BULLETS = 1;
+
+    // 实体少于这个数时顺序更新，分发的开销比省下的时间多
+    static final int MIN_ENTITIES = 4096;
+    private static final int MIN_CHUNK = 1024;
+    private static final int CHUNKS_PER_THREAD = 4; // 多切几段，线程之间负载更均匀
+
+    private static final Map<Integer, ForkJoinPool> POOLS = new HashMap<>();
+
+    // 一段存活列表 [from, to) 及其事件缓冲：事件按存活列表位置递增记录
+    static final class Chunk extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        World world;
+        int phase;
+        int from;
+        int to;
+
+        int count;
+        int[] pos = new int[MIN_CHUNK]; // 事件实体在存活列表中的位置
+        int[] arg = new int[MIN_CHUNK]; // 玩家子弹：最早命中的障碍物，-1 为只出界；敌方子弹：1 为击中玩家
+        final int[] candidates; // 网格查询缓冲
+
+        Chunk(int obstacleCapacity) {
+            candidates = new int[obstacleCapacity];
+        }
+
+        void add(int p, int a) {
+            if (count == pos.length) {
+                pos = Arrays.copyOf(pos, count * 2);
+                arg = Arrays.copyOf(arg, count * 2);
+            }
+            pos[count] = p;
+            arg[count] = a;
+            count++;
+        }
+
+        @Override
+        protected void compute() {
+            count = 0;
+            if (phase == PLAYER_BULLETS) {
+                world.scanPlayerBullets(this);
+            } else {
+                world.scanEnemyBullets(this);
+            }
+        }
+    }
+
+    // 根任务：派发其余各段，自己处理第 0 段
+    private final class Root extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected void compute() {
+            for (int c = 1; c < chunkCount; c++) chunks[c].fork();
+            chunks[0].compute();
+            for (int c = chunkCount - 1; c >= 1; c--) chunks[c].join();
+        }
+    }
+
+    final int threads;
+    private final ForkJoinPool pool;
+    private final Root root = new Root();
+    final Chunk[] chunks;
+    int chunkCount; // 本次使用的段数
+
+    public ParallelTick(int threads, int obstacleCapacity) {
+        this.threads = Math.max(1, threads);
+        pool = pool(this.threads);
+        chunks = new Chunk[this.threads * CHUNKS_PER_THREAD];
+        for (int c = 0; c < chunks.length; c++) chunks[c] = new Chunk(obstacleCapacity);
+    }
+
+    private static synchronized ForkJoinPool pool(int threads) {
+        return POOLS.computeIfAbsent(threads, ForkJoinPool::new);
+    }
+
+    boolean worthwhile(int entities) {
+        return threads > 1 && entities >= MIN_ENTITIES;
+    }
+
+    // 把 [0, size) 切段并行处理，返回后 chunks[0, chunkCount) 中是各段的事件
+    void run(World world, int phase, int size) {
+        chunkCount = Math.max(1, Math.min(chunks.length, size / MIN_CHUNK));
+        for (int c = 0; c < chunkCount; c++) {
+            Chunk chunk = chunks[c];
+            chunk.reinitialize();
+            chunk.world = world;
+            chunk.phase = phase;
+            chunk.from = (int) ((long) size * c / chunkCount);
+            chunk.to = (int) ((long) size * (c + 1) / chunkCount);
+        }
+        root.reinitialize();
+        pool.invoke(root);
+    }
+}
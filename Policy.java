@@ -0,0 +1,61 @@
+// 无头对局的操作策略：每帧根据世界状态给出 World.INPUT_* 输入位
+// 每局新建一个实例，内部随机数由对局种子派生，结果可复现
+public interface Policy {
+
+    int input(World world);
+
+    // 按名称创建策略：idle、fire、random、dodge
+    static Policy create(String name, long seed) {
+        switch (name) {
+            case "idle":
+                return world -> 0;
+            case "fire":
+                return world -> World.INPUT_FIRE;
+            case "random":
+                return new RandomPolicy(seed);
+            case "dodge":
+                return new DodgePolicy();
+            default:
+                throw new IllegalArgumentException("unknown policy: " + name);
+        }
+    }
+
+    // 随机按住一个方向若干帧再换，随机开火
+    class RandomPolicy implements Policy {
+        private final Rng rng;
+        private int direction;
+        private int holdTicks;
+
+        RandomPolicy(long seed) {
+            rng = new Rng(seed ^ 0x5DEECE66DL);
+        }
+
+        @Override
+        public int input(World world) {
+            if (--holdTicks <= 0) {
+                // 低 4 位是方向键，0 表示不动
+                direction = (int) (rng.nextDouble() * 16);
+                holdTicks = 5 + (int) (rng.nextDouble() * 30);
+            }
+            return rng.nextDouble() < 0.2 ? direction | World.INPUT_FIRE : direction;
+        }
+    }
+
+    // 远离最近的障碍物，持续开火
+    class DodgePolicy implements Policy {
+        private final Targeting targeting = new Targeting(1);
+
+        @Override
+        public int input(World world) {
+            int input = World.INPUT_FIRE;
+            if (targeting.select(world.obstacles, world.player.x, world.player.y, 1) == 0) return input;
+            int i = targeting.targets[0];
+            float dx = world.obstacles.x[i] + World.OBSTACLE_WIDTH / 2 - world.player.x;
+            float dy = world.obstacles.y[i] + World.OBSTACLE_HEIGHT / 2 - world.player.y;
+            if (dx * dx + dy * dy > 120 * 120) return input;
+            input |= dx > 0 ? World.INPUT_LEFT : World.INPUT_RIGHT;
+            input |= dy > 0 ? World.INPUT_UP : World.INPUT_DOWN;
+            return input;
+        }
+    }
+}
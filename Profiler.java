@@ -0,0 +1,241 @@
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+// 分阶段计时：每个阶段一个延迟直方图，同时可发出 JFR 事件、通过 JMX 查询，并供游戏内叠加层显示
+// 模拟阶段只由模拟线程写，FRAME 只由渲染线程写；JFR 事件只在录制开启时才创建
+public class Profiler implements ProfilerMXBean {
+
+    static final int TICK = 0; // GameLoop 一整帧
+    static final int SPAWN = 1; // 补充障碍物
+    static final int MOVE = 2; // 障碍物移动与反弹
+    static final int GRID = 3; // 重建空间网格
+    static final int PLAYER_HIT = 4; // 玩家与障碍物碰撞
+    static final int PLAYER_BULLETS = 5; // 玩家子弹与障碍物碰撞
+    static final int ENEMY_FIRE = 6; // 敌方开火
+    static final int ENEMY_BULLETS = 7; // 敌方子弹与玩家碰撞
+    static final int HIGH_SCORE = 8; // 提交最高分
+    static final int PUBLISH = 9; // 发布渲染快照
+    static final int FRAME = 10; // 绘制一帧
+    static final String[] PHASE_NAMES = {
+            "tick", "spawn", "move", "grid", "player_hit", "player_bullets",
+            "enemy_fire", "enemy_bullets", "high_score", "publish", "frame"};
+
+    private static final EventType PHASE_EVENT = EventType.getEventType(PhaseEvent.class);
+    private static final EventType TICK_EVENT = EventType.getEventType(TickEvent.class);
+
+    private final LatencyHistogram[] histograms = new LatencyHistogram[PHASE_NAMES.length];
+    private final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+
+    // 是否显示游戏内叠加层（F3 切换）
+    volatile boolean overlay;
+
+    // 最近一帧的耗时，FrameGovernor 据此估算模拟占用的预算
+    private volatile long lastTickNanos;
+
+    // 最近一帧的实体数量，由模拟线程写
+    private volatile int obstacles;
+    private volatile int playerBullets;
+    private volatile int enemyBullets;
+
+    @Name("shoot.Phase")
+    @Label("Game Phase")
+    @Category("Shoot")
+    static class PhaseEvent extends Event {
+        @Label("Phase")
+        String phase;
+
+        @Label("Duration")
+        @Timespan(Timespan.NANOSECONDS)
+        long nanos;
+    }
+
+    @Name("shoot.Tick")
+    @Label("Game Tick")
+    @Category("Shoot")
+    static class TickEvent extends Event {
+        @Label("Tick Duration")
+        @Timespan(Timespan.NANOSECONDS)
+        long nanos;
+
+        @Label("Score")
+        int score;
+
+        @Label("Obstacles")
+        int obstacles;
+
+        @Label("Player Bullets")
+        int playerBullets;
+
+        @Label("Enemy Bullets")
+        int enemyBullets;
+    }
+
+    public Profiler() {
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+
+    // 注册为平台 MBean，失败时只打印提示
+    public void register() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName("Shoot:type=Profiler"));
+        } catch (JMException e) {
+            System.err.println("Failed to register profiler MBean: " + e.getMessage());
+        }
+    }
+
+    public long lastTickNanos() {
+        return lastTickNanos;
+    }
+
+    public LatencyHistogram histogram(int phase) {
+        return histograms[phase];
+    }
+
+    // 记录从 start 到现在的耗时，返回现在的时刻，便于连续计时
+    public long lap(int phase, long start) {
+        long now = System.nanoTime();
+        record(phase, now - start);
+        return now;
+    }
+
+    public void record(int phase, long nanos) {
+        histograms[phase].record(nanos);
+        if (PHASE_EVENT.isEnabled()) {
+            PhaseEvent event = new PhaseEvent();
+            event.phase = PHASE_NAMES[phase];
+            event.nanos = nanos;
+            event.commit();
+        }
+    }
+
+    // 一帧结束：记录整帧耗时与实体数量
+    public void endTick(World world, long start) {
+        long nanos = System.nanoTime() - start;
+        histograms[TICK].record(nanos);
+        lastTickNanos = nanos;
+        obstacles = world.obstacles.size;
+        playerBullets = world.playerBullets.size;
+        enemyBullets = world.enemyBullets.size;
+        if (TICK_EVENT.isEnabled()) {
+            TickEvent event = new TickEvent();
+            event.nanos = nanos;
+            event.score = world.score;
+            event.obstacles = obstacles;
+            event.playerBullets = playerBullets;
+            event.enemyBullets = enemyBullets;
+            event.commit();
+        }
+    }
+
+    private static double micros(long nanos) {
+        return nanos / 1000.0;
+    }
+
+    @Override
+    public long getTicks() {
+        return histograms[TICK].count();
+    }
+
+    @Override
+    public double getTickP50Micros() {
+        return micros(histograms[TICK].percentile(50));
+    }
+
+    @Override
+    public double getTickP99Micros() {
+        return micros(histograms[TICK].percentile(99));
+    }
+
+    @Override
+    public double getTickMaxMicros() {
+        return micros(histograms[TICK].max());
+    }
+
+    @Override
+    public double getFrameP50Micros() {
+        return micros(histograms[FRAME].percentile(50));
+    }
+
+    @Override
+    public double getFrameP99Micros() {
+        return micros(histograms[FRAME].percentile(99));
+    }
+
+    @Override
+    public double getFrameMaxMicros() {
+        return micros(histograms[FRAME].max());
+    }
+
+    @Override
+    public Map<String, Double> getPhaseP50Micros() {
+        return phases(50);
+    }
+
+    @Override
+    public Map<String, Double> getPhaseP99Micros() {
+        return phases(99);
+    }
+
+    @Override
+    public Map<String, Double> getPhaseMaxMicros() {
+        return phases(-1);
+    }
+
+    // percentile < 0 表示最大值
+    private Map<String, Double> phases(double percentile) {
+        Map<String, Double> result = new LinkedHashMap<>();
+        for (int i = 0; i < histograms.length; i++) {
+            LatencyHistogram h = histograms[i];
+            result.put(PHASE_NAMES[i], micros(percentile < 0 ? h.max() : h.percentile(percentile)));
+        }
+        return result;
+    }
+
+    @Override
+    public int getObstacles() {
+        return obstacles;
+    }
+
+    @Override
+    public int getPlayerBullets() {
+        return playerBullets;
+    }
+
+    @Override
+    public int getEnemyBullets() {
+        return enemyBullets;
+    }
+
+    @Override
+    public long getGcCount() {
+        long n = 0;
+        for (GarbageCollectorMXBean gc : collectors) n += Math.max(gc.getCollectionCount(), 0);
+        return n;
+    }
+
+    @Override
+    public long getGcMillis() {
+        long n = 0;
+        for (GarbageCollectorMXBean gc : collectors) n += Math.max(gc.getCollectionTime(), 0);
+        return n;
+    }
+
+    @Override
+    public void reset() {
+        for (LatencyHistogram h : histograms) h.reset();
+    }
+}
@@ -0,0 +1,39 @@
+import java.util.Map;
+
+// 通过 JMX 暴露的性能数据，注册名为 Shoot:type=Profiler，时间单位为微秒
+public interface ProfilerMXBean {
+
+    long getTicks();
+
+    double getTickP50Micros();
+
+    double getTickP99Micros();
+
+    double getTickMaxMicros();
+
+    double getFrameP50Micros();
+
+    double getFrameP99Micros();
+
+    double getFrameMaxMicros();
+
+    // 各阶段名称到对应统计值
+    Map<String, Double> getPhaseP50Micros();
+
+    Map<String, Double> getPhaseP99Micros();
+
+    Map<String, Double> getPhaseMaxMicros();
+
+    int getObstacles();
+
+    int getPlayerBullets();
+
+    int getEnemyBullets();
+
+    long getGcCount();
+
+    long getGcMillis();
+
+    // 清空全部直方图
+    void reset();
+}
@@ -0,0 +1,83 @@
+// 渲染快照：模拟线程在每帧结束时把 World 复制进来，渲染线程只读
+// 实体按 x, y, 上一帧 x, 上一帧 y 交错存放，数组按池容量预分配，复制时不产生垃圾
+public class RenderState {
+
+    static final int STRIDE = 4;
+
+    int width;
+    int height;
+
+    float playerX, playerY;
+    float playerPrevX, playerPrevY;
+
+    // 多人模式下的其他在场玩家
+    final float[] otherPlayers;
+    int otherPlayerCount;
+
+    final float[] obstacles;
+    int obstacleCount;
+    final float[] playerBullets;
+    int playerBulletCount;
+    final float[] enemyBullets;
+    int enemyBulletCount;
+
+    int score;
+    int highScore;
+    boolean protectionOn;
+    boolean gameOver;
+
+    long tick; // 模拟帧号
+    long simTimeNanos; // 该帧对应的模拟时刻（System.nanoTime 时间轴）
+
+    public RenderState(GameConfig config) {
+        obstacles = new float[config.maxObstacles * STRIDE];
+        playerBullets = new float[config.maxPlayerBullets * STRIDE];
+        enemyBullets = new float[config.maxEnemyBullets * STRIDE];
+        otherPlayers = new float[(Math.max(1, config.players) - 1) * STRIDE];
+    }
+
+    public void capture(World world) {
+        width = world.width;
+        height = world.height;
+        playerX = world.player.x;
+        playerY = world.player.y;
+        playerPrevX = world.player.px;
+        playerPrevY = world.player.py;
+        int o = 0;
+        for (int i = 1; i < world.players.length; i++) {
+            World.Player p = world.players[i];
+            if (!p.joined || !(p.active || world.gameOver)) continue;
+            otherPlayers[o] = p.x;
+            otherPlayers[o + 1] = p.y;
+            otherPlayers[o + 2] = p.px;
+            otherPlayers[o + 3] = p.py;
+            o += STRIDE;
+        }
+        otherPlayerCount = o / STRIDE;
+        obstacleCount = copy(world.obstacles, obstacles);
+        playerBulletCount = copy(world.playerBullets, playerBullets);
+        enemyBulletCount = copy(world.enemyBullets, enemyBullets);
+        score = world.score;
+        highScore = world.highScore;
+        protectionOn = world.protectionOn;
+        gameOver = world.gameOver;
+    }
+
+    private static int copy(EntityPool pool, float[] out) {
+        int o = 0;
+        for (int k = 0; k < pool.size; k++) {
+            int i = pool.live[k];
+            out[o] = pool.x[i];
+            out[o + 1] = pool.y[i];
+            out[o + 2] = pool.px[i];
+            out[o + 3] = pool.py[i];
+            o += STRIDE;
+        }
+        return pool.size;
+    }
+
+    // 在上一帧与本帧之间按 alpha 插值
+    static float lerp(float prev, float cur, float alpha) {
+        return prev + (cur - prev) * alpha;
+    }
+}
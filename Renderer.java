@@ -0,0 +1,439 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+// 绘制一份 RenderState：精灵在构造时预先光栅化成兼容图像，每帧只做贴图
+// 字体、虚线笔划与 HUD 文字都缓存起来，HUD 只在分数或护盾状态变化时重绘
+// 文字由预先光栅化的字形逐字贴图拼成（drawChars 每次都会创建 String 和字形向量），稳定运行时每帧不分配内存
+// tier 为 FrameGovernor 给出的画质档位，档位越高画得越省
+public class Renderer {
+
+    private static final int PLAYER_RADIUS = World.PLAYER_RADIUS; // 玩家角色半径
+    private static final int OBSTACLE_WIDTH = World.OBSTACLE_WIDTH; // 障碍物宽度
+    private static final int OBSTACLE_HEIGHT = World.OBSTACLE_HEIGHT; // 障碍物高度
+    private static final int BULLET_RADIUS = World.BULLET_RADIUS;
+    private static final int ENEMY_BULLET_RADIUS = World.ENEMY_BULLET_RADIUS;
+    private static final int SHIELD_RADIUS = PLAYER_RADIUS + 8;
+    private static final Color PLAYER_COLOR = Color.RED; // 玩家角色颜色
+    private static final Color OTHER_PLAYER_COLOR = Color.ORANGE; // 其他玩家
+    private static final Color BACKGROUND_COLOR = Color.LIGHT_GRAY;
+
+    private static final Font HUD_FONT = new Font("Arial", Font.PLAIN, 24);
+    private static final Font GAME_OVER_FONT = new Font("Arial", Font.BOLD, 36);
+    private static final Stroke SHIELD_STROKE =
+            new BasicStroke(2, BasicStroke.CAP_BUTT, BasicStroke.JOIN_BEVEL, 0, new float[]{9}, 0);
+    private static final Font OVERLAY_FONT = new Font(Font.MONOSPACED, Font.PLAIN, 12);
+    private static final Color OVERLAY_BACKGROUND = new Color(0, 0, 0, 160);
+    private static final int OVERLAY_WIDTH = 340;
+    private static final int OVERLAY_LINE = 14;
+    private static final long OVERLAY_REFRESH_NANOS = 250_000_000L;
+    private static final long HUD_THROTTLE_NANOS = 250_000_000L; // 降档后 HUD 的最短重绘间隔
+    private static final int HUD_HEIGHT = 30;
+    private static final int HUD_BASELINE = 20;
+
+    private static final char[] SCORE_LABEL = "Score: ".toCharArray();
+    private static final char[] HIGH_SCORE_LABEL = "    Highest Score: ".toCharArray();
+    private static final char[] PROTECTION_TEXT = "Protection On".toCharArray();
+    private static final char[] GAME_OVER_LABEL = "Game is over! Points: ".toCharArray();
+    private static final char[] RESTART_TEXT = "Press ESC to quit or press the menu to restart".toCharArray();
+    private static final char[] P50 = " p50 ".toCharArray();
+    private static final char[] P99 = " p99 ".toCharArray();
+    private static final char[] MAX = " max ".toCharArray();
+    private static final char[] US = " us".toCharArray();
+    private static final char[] TICK_LABEL = "tick ".toCharArray();
+    private static final char[] FRAME_LABEL = "frame".toCharArray();
+    private static final char[] P99_LABEL = "p99 ".toCharArray();
+    private static final char[] ENTITIES_LABEL = "obstacles ".toCharArray();
+    private static final char[] BULLETS_LABEL = "  bullets ".toCharArray();
+    private static final char[] GC_LABEL = "gc ".toCharArray();
+    private static final char[] GC_COLLECTIONS = " collections, ".toCharArray();
+    private static final char[] MS = " ms".toCharArray();
+    private static final char[] QUALITY_LABEL = "quality ".toCharArray();
+    private static final char[] FRAME_USAGE_LABEL = "  frame ".toCharArray();
+    private static final char[] TICK_USAGE_LABEL = "%  tick ".toCharArray();
+    // 叠加层中各阶段的标签，下标与 Profiler 阶段编号对应
+    private static final char[][] PHASE_LABELS = new char[Profiler.PHASE_NAMES.length][];
+
+    private static final char[][] TIER_LABELS = new char[FrameGovernor.TIER_NAMES.length][];
+
+    static {
+        for (int i = 0; i < TIER_LABELS.length; i++) TIER_LABELS[i] = FrameGovernor.TIER_NAMES[i].toCharArray();
+        String[] labels = {"tick", "spawn ", " move ", " grid ", "hit ", " bullets ", " fire ", " enemy ",
+                "score", "publish", "frame"};
+        for (int i = 0; i < labels.length; i++) PHASE_LABELS[i] = labels[i].toCharArray();
+    }
+
+    private final GraphicsConfiguration gc;
+
+    private final Image playerSprite;
+    private final Image otherPlayerSprite;
+    private final Image obstacleSprite;
+    private final Image bulletSprite;
+    private final Image enemyBulletSprite;
+    private final Image shieldSprite;
+    private final Image protectionText;
+
+    private final Glyphs hudGlyphs;
+    private final Glyphs gameOverGlyphs;
+    private final Glyphs overlayGlyphs;
+
+    // 画质档位，由调用方在每帧绘制前按 FrameGovernor 设置
+    int tier = FrameGovernor.FULL;
+
+    // HUD 缓存，key 变化时才重新绘制文字
+    private BufferedImage hud;
+    private long hudTime;
+    private Graphics2D hudGraphics;
+    private int hudScore = -1;
+    private int hudHighScore = -1;
+    private boolean hudProtection;
+    // 拼一行文字用的缓冲；数字按最大位数算（appendMicros 最多 12 个字符），最长的“p99 hit … enemy …”一行为 78 个字符
+    private final char[] text = new char[128];
+
+    // F3 性能叠加层，定期重绘
+    private BufferedImage overlay;
+    private Graphics2D overlayGraphics;
+    private long overlayTime;
+
+    private BufferedImage gameOverImage;
+    private Graphics2D gameOverGraphics;
+    private int gameOverScore = -1;
+
+    // gc 为 null 时（无头或离屏渲染）使用普通 ARGB 图像
+    public Renderer(GraphicsConfiguration gc) {
+        this.gc = gc;
+
+        playerSprite = oval(PLAYER_RADIUS, PLAYER_COLOR);
+        otherPlayerSprite = oval(PLAYER_RADIUS, OTHER_PLAYER_COLOR);
+        bulletSprite = oval(BULLET_RADIUS, Color.BLACK);
+        enemyBulletSprite = oval(ENEMY_BULLET_RADIUS, Color.BLACK);
+
+        BufferedImage obstacle = createImage(OBSTACLE_WIDTH, OBSTACLE_HEIGHT, Transparency.OPAQUE);
+        Graphics2D g = obstacle.createGraphics();
+        g.setColor(Color.BLACK);
+        g.fillRect(0, 0, OBSTACLE_WIDTH, OBSTACLE_HEIGHT);
+        g.dispose();
+        obstacleSprite = obstacle;
+
+        int size = SHIELD_RADIUS * 2 + 2;
+        BufferedImage shield = createImage(size, size, Transparency.TRANSLUCENT);
+        g = shield.createGraphics();
+        g.setColor(Color.BLUE);
+        g.setStroke(SHIELD_STROKE);
+        g.drawArc(1, 1, SHIELD_RADIUS * 2, SHIELD_RADIUS * 2, 0, 360);
+        g.dispose();
+        shieldSprite = shield;
+
+        hudGlyphs = new Glyphs(HUD_FONT, Color.BLACK);
+        gameOverGlyphs = new Glyphs(GAME_OVER_FONT, Color.RED);
+        overlayGlyphs = new Glyphs(OVERLAY_FONT, Color.WHITE);
+        protectionText = new Glyphs(HUD_FONT, Color.BLUE).line(PROTECTION_TEXT);
+    }
+
+    // 一种字体和颜色下 ASCII 可见字符的字形图，按字符宽度前进；字形左右留边，避免笔画超出步进宽度时被裁掉
+    private final class Glyphs {
+        final Image[] images = new Image[128];
+        final int[] advance = new int[128];
+        final int ascent;
+        final int height;
+        final int pad;
+
+        Glyphs(Font font, Color color) {
+            BufferedImage probe = createImage(1, 1, Transparency.TRANSLUCENT);
+            Graphics2D g = probe.createGraphics();
+            FontMetrics metrics = g.getFontMetrics(font);
+            g.dispose();
+            ascent = metrics.getAscent();
+            height = ascent + metrics.getDescent();
+            pad = font.getSize() / 4;
+            char[] c = new char[1];
+            for (c[0] = ' '; c[0] < images.length; c[0]++) {
+                advance[c[0]] = metrics.charWidth(c[0]);
+                if (c[0] == ' ') continue;
+                BufferedImage image = createImage(advance[c[0]] + pad * 2, height, Transparency.TRANSLUCENT);
+                g = image.createGraphics();
+                g.setFont(font);
+                g.setColor(color);
+                g.drawChars(c, 0, 1, pad, ascent);
+                g.dispose();
+                images[c[0]] = image;
+            }
+        }
+
+        // 从 (x, baseline) 开始绘制 text[0, len)，不认识的字符跳过
+        void draw(Graphics2D g, char[] text, int len, int x, int baseline) {
+            int top = baseline - ascent;
+            for (int i = 0; i < len; i++) {
+                char ch = text[i];
+                if (ch >= images.length) continue;
+                if (images[ch] != null) g.drawImage(images[ch], x - pad, top, null);
+                x += advance[ch];
+            }
+        }
+
+        // 把一整行固定文字画成一张图，基线在图像内 ascent 处
+        BufferedImage line(char[] text) {
+            int width = pad * 2;
+            for (char ch : text) width += ch < advance.length ? advance[ch] : 0;
+            BufferedImage image = createImage(width, height, Transparency.TRANSLUCENT);
+            Graphics2D g = image.createGraphics();
+            draw(g, text, text.length, pad, ascent);
+            g.dispose();
+            return image;
+        }
+    }
+
+    private Image oval(int radius, Color color) {
+        BufferedImage image = createImage(radius * 2 + 1, radius * 2 + 1, Transparency.TRANSLUCENT);
+        Graphics2D g = image.createGraphics();
+        g.setColor(color);
+        g.fillOval(0, 0, radius * 2, radius * 2);
+        g.dispose();
+        return image;
+    }
+
+    private BufferedImage createImage(int width, int height, int transparency) {
+        if (gc != null) {
+            return gc.createCompatibleImage(width, height, transparency);
+        }
+        return new BufferedImage(width, height,
+                transparency == Transparency.OPAQUE ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+    }
+
+    public void render(Graphics2D g2d, RenderState state, float alpha, int width, int height) {
+        boolean quality = tier == FrameGovernor.FULL;
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+                quality ? RenderingHints.VALUE_ANTIALIAS_ON : RenderingHints.VALUE_ANTIALIAS_OFF);
+        g2d.setRenderingHint(RenderingHints.KEY_RENDERING,
+                quality ? RenderingHints.VALUE_RENDER_QUALITY : RenderingHints.VALUE_RENDER_SPEED);
+        g2d.setRenderingHint(RenderingHints.KEY_ALPHA_INTERPOLATION,
+                quality ? RenderingHints.VALUE_ALPHA_INTERPOLATION_QUALITY : RenderingHints.VALUE_ALPHA_INTERPOLATION_SPEED);
+        if (tier >= FrameGovernor.NO_INTERPOLATION) {
+            alpha = 1f; // 直接画最新位置
+        }
+
+        // 绘制背景
+        g2d.setColor(BACKGROUND_COLOR);
+        g2d.fillRect(0, 0, width, height);
+
+        // 绘制分数
+        g2d.drawImage(hud(state, width), 0, 0, null);
+
+        // 其他玩家画在自己下面
+        drawCentered(g2d, otherPlayerSprite, state.otherPlayers, state.otherPlayerCount, PLAYER_RADIUS, alpha);
+
+        // 绘制玩家角色
+        int px = (int) RenderState.lerp(state.playerPrevX, state.playerX, alpha);
+        int py = (int) RenderState.lerp(state.playerPrevY, state.playerY, alpha);
+        g2d.drawImage(playerSprite, px - PLAYER_RADIUS, py - PLAYER_RADIUS, null);
+
+        // 绘制障碍物
+        float[] obstacles = state.obstacles;
+        for (int o = 0; o < state.obstacleCount * RenderState.STRIDE; o += RenderState.STRIDE) {
+            int x = (int) RenderState.lerp(obstacles[o + 2], obstacles[o], alpha);
+            int y = (int) RenderState.lerp(obstacles[o + 3], obstacles[o + 1], alpha);
+            g2d.drawImage(obstacleSprite, x, y, null);
+        }
+
+        if (tier >= FrameGovernor.SIMPLE_BULLETS) {
+            // 不透明方块，省去逐像素的 alpha 混合
+            g2d.setColor(Color.BLACK);
+            fillCentered(g2d, state.playerBullets, state.playerBulletCount, BULLET_RADIUS, alpha);
+            fillCentered(g2d, state.enemyBullets, state.enemyBulletCount, ENEMY_BULLET_RADIUS, alpha);
+        } else {
+            // 绘制玩家子弹
+            drawCentered(g2d, bulletSprite, state.playerBullets, state.playerBulletCount, BULLET_RADIUS, alpha);
+
+            // 绘制敌方子弹
+            drawCentered(g2d, enemyBulletSprite, state.enemyBullets, state.enemyBulletCount, ENEMY_BULLET_RADIUS, alpha);
+        }
+
+        // 绘制保护盾
+        if (state.protectionOn) {
+            g2d.drawImage(shieldSprite, px - SHIELD_RADIUS - 1, py - SHIELD_RADIUS - 1, null);
+        }
+
+        // 游戏结束信息
+        if (state.gameOver) {
+            g2d.drawImage(gameOver(state.score, width), width / 4, height / 3 - 36, null);
+        }
+    }
+
+    // 以坐标为圆心绘制一组圆形精灵（子弹、其他玩家）
+    private static void drawCentered(Graphics2D g2d, Image sprite, float[] entities, int count, int radius, float alpha) {
+        for (int o = 0; o < count * RenderState.STRIDE; o += RenderState.STRIDE) {
+            int x = (int) RenderState.lerp(entities[o + 2], entities[o], alpha);
+            int y = (int) RenderState.lerp(entities[o + 3], entities[o + 1], alpha);
+            g2d.drawImage(sprite, x - radius, y - radius, null);
+        }
+    }
+
+    private static void fillCentered(Graphics2D g2d, float[] entities, int count, int radius, float alpha) {
+        for (int o = 0; o < count * RenderState.STRIDE; o += RenderState.STRIDE) {
+            int x = (int) RenderState.lerp(entities[o + 2], entities[o], alpha);
+            int y = (int) RenderState.lerp(entities[o + 3], entities[o + 1], alpha);
+            g2d.fillRect(x - radius, y - radius, radius * 2, radius * 2);
+        }
+    }
+
+    // 分数栏：“Score: N    Highest Score: M” 与护盾提示，变化时才重绘；降档后最多每 250ms 重绘一次
+    private BufferedImage hud(RenderState state, int width) {
+        width = Math.max(width, 1);
+        if (hud == null || hud.getWidth() != width) {
+            if (hudGraphics != null) hudGraphics.dispose();
+            hud = createImage(width, HUD_HEIGHT, Transparency.TRANSLUCENT);
+            hudGraphics = hud.createGraphics();
+            hudScore = -1;
+        }
+        if (state.score == hudScore && state.highScore == hudHighScore && state.protectionOn == hudProtection) {
+            return hud;
+        }
+        long now = System.nanoTime();
+        if (tier >= FrameGovernor.FAST_HINTS && hudScore >= 0 && now - hudTime < HUD_THROTTLE_NANOS) {
+            return hud;
+        }
+        hudTime = now;
+        hudScore = state.score;
+        hudHighScore = state.highScore;
+        hudProtection = state.protectionOn;
+
+        Graphics2D g = clear(hudGraphics, hud);
+        int len = append(text, 0, SCORE_LABEL);
+        len = appendInt(text, len, state.score);
+        len = append(text, len, HIGH_SCORE_LABEL);
+        len = appendInt(text, len, state.highScore);
+        hudGlyphs.draw(g, text, len, 10, HUD_BASELINE);
+        if (state.protectionOn) {
+            g.drawImage(protectionText, 300 - hudGlyphs.pad, HUD_BASELINE - hudGlyphs.ascent, null);
+        }
+        return hud;
+    }
+
+    // 游戏结束提示，基线在图像内 36 像素处，两行间隔 40
+    private BufferedImage gameOver(int score, int width) {
+        int w = Math.max(width - width / 4, 1);
+        if (gameOverImage == null || gameOverImage.getWidth() != w) {
+            if (gameOverGraphics != null) gameOverGraphics.dispose();
+            gameOverImage = createImage(w, 90, Transparency.TRANSLUCENT);
+            gameOverGraphics = gameOverImage.createGraphics();
+            gameOverScore = -1;
+        }
+        if (score == gameOverScore) {
+            return gameOverImage;
+        }
+        gameOverScore = score;
+
+        Graphics2D g = clear(gameOverGraphics, gameOverImage);
+        int len = append(text, 0, GAME_OVER_LABEL);
+        len = appendInt(text, len, score);
+        gameOverGlyphs.draw(g, text, len, 0, 36);
+        gameOverGlyphs.draw(g, RESTART_TEXT, RESTART_TEXT.length, 0, 76);
+        return gameOverImage;
+    }
+
+    // 性能叠加层：整帧与绘制耗时、主要阶段的 p99、实体数量、GC 统计和画质档位，画在右上角
+    public void renderOverlay(Graphics2D g2d, Profiler profiler, FrameGovernor governor, int width) {
+        long now = System.nanoTime();
+        if (overlay == null) {
+            overlay = createImage(OVERLAY_WIDTH, OVERLAY_LINE * 7 + 6, Transparency.TRANSLUCENT);
+            overlayGraphics = overlay.createGraphics();
+            overlayTime = now - OVERLAY_REFRESH_NANOS;
+        }
+        if (now - overlayTime >= OVERLAY_REFRESH_NANOS) {
+            overlayTime = now;
+            Graphics2D g = clear(overlayGraphics, overlay);
+            g.setColor(OVERLAY_BACKGROUND);
+            g.fillRect(0, 0, overlay.getWidth(), overlay.getHeight());
+            int y = OVERLAY_LINE;
+
+            int len = latency(text, append(text, 0, TICK_LABEL), profiler.histogram(Profiler.TICK));
+            overlayGlyphs.draw(g, text, len, 4, y);
+            len = latency(text, append(text, 0, FRAME_LABEL), profiler.histogram(Profiler.FRAME));
+            overlayGlyphs.draw(g, text, len, 4, y += OVERLAY_LINE);
+
+            len = append(text, 0, P99_LABEL);
+            for (int phase = Profiler.SPAWN; phase <= Profiler.ENEMY_BULLETS; phase++) {
+                if (phase == Profiler.PLAYER_HIT) {
+                    overlayGlyphs.draw(g, text, len, 4, y += OVERLAY_LINE);
+                    len = append(text, 0, P99_LABEL);
+                }
+                len = append(text, len, PHASE_LABELS[phase]);
+                len = appendMicros(text, len, profiler.histogram(phase).percentile(99));
+            }
+            overlayGlyphs.draw(g, text, len, 4, y += OVERLAY_LINE);
+
+            len = append(text, 0, ENTITIES_LABEL);
+            len = appendInt(text, len, profiler.getObstacles());
+            len = append(text, len, BULLETS_LABEL);
+            len = appendInt(text, len, profiler.getPlayerBullets());
+            text[len++] = '/';
+            len = appendInt(text, len, profiler.getEnemyBullets());
+            overlayGlyphs.draw(g, text, len, 4, y += OVERLAY_LINE);
+
+            len = append(text, 0, GC_LABEL);
+            len = appendInt(text, len, (int) profiler.getGcCount());
+            len = append(text, len, GC_COLLECTIONS);
+            len = appendInt(text, len, (int) profiler.getGcMillis());
+            len = append(text, len, MS);
+            overlayGlyphs.draw(g, text, len, 4, y += OVERLAY_LINE);
+
+            if (governor != null) {
+                len = append(text, 0, QUALITY_LABEL);
+                len = append(text, len, TIER_LABELS[governor.tier()]);
+                len = append(text, len, FRAME_USAGE_LABEL);
+                len = appendInt(text, len, (int) Math.round(governor.getFrameBudgetUsage() * 100));
+                len = append(text, len, TICK_USAGE_LABEL);
+                len = appendInt(text, len, (int) Math.round(governor.getTickBudgetUsage() * 100));
+                text[len++] = '%';
+                overlayGlyphs.draw(g, text, len, 4, y += OVERLAY_LINE);
+            }
+        }
+        g2d.drawImage(overlay, width - OVERLAY_WIDTH - 4, HUD_HEIGHT, null);
+    }
+
+    private static int latency(char[] buf, int pos, LatencyHistogram h) {
+        pos = append(buf, pos, P50);
+        pos = appendMicros(buf, pos, h.percentile(50));
+        pos = append(buf, pos, P99);
+        pos = appendMicros(buf, pos, h.percentile(99));
+        pos = append(buf, pos, MAX);
+        pos = appendMicros(buf, pos, h.max());
+        return append(buf, pos, US);
+    }
+
+    // 纳秒写成保留一位小数的微秒
+    static int appendMicros(char[] buf, int pos, long nanos) {
+        long tenths = nanos / 100;
+        pos = appendInt(buf, pos, (int) Math.min(tenths / 10, Integer.MAX_VALUE));
+        buf[pos++] = '.';
+        buf[pos++] = (char) ('0' + tenths % 10);
+        return pos;
+    }
+
+    // 清空缓存图像，复用它常驻的 Graphics2D
+    private static Graphics2D clear(Graphics2D g, BufferedImage image) {
+        g.setComposite(AlphaComposite.Clear);
+        g.fillRect(0, 0, image.getWidth(), image.getHeight());
+        g.setComposite(AlphaComposite.SrcOver);
+        return g;
+    }
+
+    static int append(char[] buf, int pos, char[] s) {
+        System.arraycopy(s, 0, buf, pos, s.length);
+        return pos + s.length;
+    }
+
+    // 不经过 String，直接把十进制数字写入 buf
+    static int appendInt(char[] buf, int pos, int value) {
+        if (value < 0) {
+            buf[pos++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (int v = value; v >= 10; v /= 10) digits++;
+        for (int i = pos + digits - 1; i >= pos; i--) {
+            buf[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return pos + digits;
+    }
+}
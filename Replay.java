@@ -0,0 +1,144 @@
+import java.io.*;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+// 回放：读取 ReplayRecorder 写出的文件，在无头 World 上全速重放并校验结果
+// 用法：java Replay <文件或目录>...   目录下的 *.shr 会并行回放，结果以 CSV 输出
+public class Replay {
+
+    static final int MAGIC = 0x53485250; // "SHRP"
+    // 3：15000 分齐射开始生效；4：连续碰撞检测。文件格式与 2 相同，旧版本按当时的规则重放
+    static final int VERSION = 4;
+
+    static final int TAG_INPUT = 0; // varint 输入位, varint 连续帧数
+    static final int TAG_RESIZE = 1; // varint 宽, varint 高
+    static final int TAG_END = 2; // varint 总帧数, 8 字节状态摘要
+
+    // 一次回放的结果
+    static class Result {
+        World world;
+        long ticks;
+        long expectedTicks = -1;
+        long expectedChecksum;
+        boolean verified; // 末尾摘要与重放结果一致
+    }
+
+    public static Result play(Path path) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(path))) {
+            return play(in);
+        }
+    }
+
+    public static Result play(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) throw new IOException("not a replay file");
+        int version = data.readUnsignedByte();
+        if (version < 1 || version > VERSION) throw new IOException("unsupported replay version " + version);
+        long seed = data.readLong();
+
+        GameConfig config = new GameConfig();
+        config.width = (int) readVarint(data);
+        config.height = (int) readVarint(data);
+        config.maxObstacles = (int) readVarint(data);
+        config.initObstacles = (int) readVarint(data);
+        config.maxPlayerBullets = (int) readVarint(data);
+        config.maxEnemyBullets = (int) readVarint(data);
+        config.leadTargeting = data.readUnsignedByte() != 0;
+        if (version >= 2) {
+            config.speedUpScore = (int) readVarint(data);
+            config.waveScore = (int) readVarint(data);
+            config.waveStep = (int) readVarint(data);
+            config.tripleShotScore = (int) readVarint(data);
+            config.ceaseFireScore = (int) readVarint(data);
+            config.volleyScore = (int) readVarint(data);
+            config.volleyInterval = (int) readVarint(data);
+            config.enemyFireInterval = (int) readVarint(data);
+            config.hitLimit = (int) readVarint(data);
+            config.protectionScore = (int) readVarint(data);
+            config.protectionFrames = (int) readVarint(data);
+        }
+        if (version < 3) {
+            config.volleyScore = Integer.MAX_VALUE; // 旧版本录制时齐射从未触发
+        }
+
+        Result result = new Result();
+        World world = new World(config, seed);
+        world.legacyCollision = version < 4;
+        result.world = world;
+
+        int tag;
+        while ((tag = data.read()) >= 0) {
+            switch (tag) {
+                case TAG_INPUT:
+                    int input = (int) readVarint(data);
+                    long count = readVarint(data);
+                    for (long i = 0; i < count; i++) {
+                        world.step(input);
+                    }
+                    result.ticks += count;
+                    break;
+                case TAG_RESIZE:
+                    world.setSize((int) readVarint(data), (int) readVarint(data));
+                    break;
+                case TAG_END:
+                    result.expectedTicks = readVarint(data);
+                    result.expectedChecksum = data.readLong();
+                    result.verified = result.expectedTicks == result.ticks
+                            && result.expectedChecksum == world.checksum();
+                    return result;
+                default:
+                    throw new IOException("corrupt replay record " + tag);
+            }
+        }
+        return result;
+    }
+
+    static long readVarint(DataInput in) throws IOException {
+        long v = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            v |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return v;
+        }
+        throw new IOException("varint too long");
+    }
+
+    public static void main(String[] args) throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (String arg : args) {
+            Path p = Paths.get(arg);
+            if (Files.isDirectory(p)) {
+                try (Stream<Path> s = Files.list(p)) {
+                    s.filter(f -> f.toString().endsWith(".shr")).sorted().forEach(files::add);
+                }
+            } else {
+                files.add(p);
+            }
+        }
+        if (files.isEmpty()) {
+            System.err.println("usage: java Replay <replay.shr | directory>...");
+            System.exit(2);
+        }
+
+        System.out.println("file,ticks,score,game_over,verified,millis,ticks_per_sec");
+        long start = System.nanoTime();
+        long failed = files.parallelStream().map(f -> {
+            long t0 = System.nanoTime();
+            try {
+                Result r = play(f);
+                double ms = (System.nanoTime() - t0) / 1e6;
+                System.out.printf("%s,%d,%d,%b,%b,%.2f,%.0f%n", f, r.ticks, r.world.score, r.world.gameOver,
+                        r.verified, ms, r.ticks / Math.max(ms, 1e-3) * 1000);
+                return r.verified;
+            } catch (IOException e) {
+                System.out.printf("%s,error: %s%n", f, e.getMessage());
+                return false;
+            }
+        }).filter(ok -> !ok).count();
+        System.out.printf("# %d replays in %.1f ms, %d not verified%n",
+                files.size(), (System.nanoTime() - start) / 1e6, failed);
+        if (failed > 0) System.exit(1);
+    }
+}
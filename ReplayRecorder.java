@@ -0,0 +1,133 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// 回放录制：只记录种子、配置和每帧输入。相同输入连续出现时合并成一段（RLE），
+// 数值用变长整数编码。数据先写入内存缓冲，save() 时整体落盘，录制过程中不做 I/O
+public class ReplayRecorder {
+
+    private byte[] buf = new byte[4096];
+    private int len;
+
+    private int runInput = -1;
+    private int runCount;
+    private int lastWidth;
+    private int lastHeight;
+    private long ticks;
+
+    public ReplayRecorder(World world) {
+        GameConfig c = world.config;
+        writeInt(Replay.MAGIC);
+        writeByte(Replay.VERSION);
+        writeLong(world.seed);
+        writeVarint(c.width);
+        writeVarint(c.height);
+        writeVarint(c.maxObstacles);
+        writeVarint(c.initObstacles);
+        writeVarint(c.maxPlayerBullets);
+        writeVarint(c.maxEnemyBullets);
+        writeByte(c.leadTargeting ? 1 : 0);
+        // 版本 2 起记录难度参数
+        writeVarint(c.speedUpScore);
+        writeVarint(c.waveScore);
+        writeVarint(c.waveStep);
+        writeVarint(c.tripleShotScore);
+        writeVarint(c.ceaseFireScore);
+        writeVarint(c.volleyScore);
+        writeVarint(c.volleyInterval);
+        writeVarint(c.enemyFireInterval);
+        writeVarint(c.hitLimit);
+        writeVarint(c.protectionScore);
+        writeVarint(c.protectionFrames);
+        lastWidth = c.width;
+        lastHeight = c.height;
+    }
+
+    // 在 world.step(input) 之前调用，width/height 为本帧使用的场地尺寸
+    public void record(int input, int width, int height) {
+        if (width != lastWidth || height != lastHeight) {
+            flushRun();
+            writeByte(Replay.TAG_RESIZE);
+            writeVarint(width);
+            writeVarint(height);
+            lastWidth = width;
+            lastHeight = height;
+        }
+        if (input != runInput) {
+            flushRun();
+            runInput = input;
+        }
+        runCount++;
+        ticks++;
+    }
+
+    public long ticks() {
+        return ticks;
+    }
+
+    // 写出到目前为止的录像，末尾附帧数与世界状态摘要用于回放校验；之后仍可继续录制
+    public void save(Path path, World world) throws IOException {
+        byte[] tail = new byte[32];
+        int n = 0;
+        if (runCount > 0) {
+            tail[n++] = Replay.TAG_INPUT;
+            n = putVarint(tail, n, runInput);
+            n = putVarint(tail, n, runCount);
+        }
+        tail[n++] = Replay.TAG_END;
+        byte[] end = new byte[10 + 8];
+        int m = putVarint(end, 0, ticks);
+        long checksum = world.checksum();
+        for (int i = 0; i < 8; i++) end[m++] = (byte) (checksum >>> (56 - 8 * i));
+        try (OutputStream out = Files.newOutputStream(path)) {
+            out.write(buf, 0, len);
+            out.write(tail, 0, n);
+            out.write(end, 0, m);
+        }
+    }
+
+    private void flushRun() {
+        if (runCount == 0) return;
+        writeByte(Replay.TAG_INPUT);
+        writeVarint(runInput);
+        writeVarint(runCount);
+        runCount = 0;
+    }
+
+    private void ensure(int extra) {
+        if (len + extra > buf.length) {
+            byte[] bigger = new byte[Math.max(buf.length * 2, len + extra)];
+            System.arraycopy(buf, 0, bigger, 0, len);
+            buf = bigger;
+        }
+    }
+
+    private void writeByte(int b) {
+        ensure(1);
+        buf[len++] = (byte) b;
+    }
+
+    private void writeInt(int v) {
+        for (int i = 24; i >= 0; i -= 8) writeByte(v >>> i);
+    }
+
+    private void writeLong(long v) {
+        for (int i = 56; i >= 0; i -= 8) writeByte((int) (v >>> i));
+    }
+
+    private void writeVarint(long v) {
+        ensure(10);
+        len = putVarint(buf, len, v);
+    }
+
+    // 无符号 LEB128：每字节 7 位，最高位表示后面还有字节
+    static int putVarint(byte[] out, int pos, long v) {
+        while ((v & ~0x7FL) != 0) {
+            out[pos++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        out[pos++] = (byte) v;
+        return pos;
+    }
+}
@@ -0,0 +1,38 @@
+// 每局独立的伪随机数发生器（xoroshiro128+），不加锁，状态可读写以便回放和存档
+public class Rng {
+
+    long s0, s1;
+
+    public Rng(long seed) {
+        setSeed(seed);
+    }
+
+    // 用 SplitMix64 把任意种子展开成两个非零状态字
+    public void setSeed(long seed) {
+        long z = seed;
+        s0 = mix(z += 0x9E3779B97F4A7C15L);
+        s1 = mix(z + 0x9E3779B97F4A7C15L);
+        if ((s0 | s1) == 0) s1 = 1;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    public long nextLong() {
+        long a = s0;
+        long b = s1;
+        long result = a + b;
+        b ^= a;
+        s0 = Long.rotateLeft(a, 24) ^ b ^ (b << 16);
+        s1 = Long.rotateLeft(b, 37);
+        return result;
+    }
+
+    // [0, 1) 之间的 double，取高 53 位
+    public double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+}
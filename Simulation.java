@@ -0,0 +1,12 @@
+// 界面驱动的模拟源：本地 GameLoop 或联网客户端 NetClient，Shoot 只通过这个接口交互
+public interface Simulation extends Runnable {
+
+    InputState inputs();
+
+    long tickNanos();
+
+    // 任意线程：场地尺寸变化
+    void resize(int width, int height);
+
+    void stop();
+}
@@ -0,0 +1,88 @@
+// 均匀网格粗筛：按锚点把实体池中的存活实体分到格子里
+// 每帧用计数排序整体重建，O(n + 格子数)，不产生垃圾
+// 查询返回锚点所在格子与矩形相交的候选槽位，精确判断由调用方完成
+public class SpatialGrid {
+
+    static final int DEFAULT_CELL_SIZE = 64;
+
+    final int cellSize;
+    private int cols;
+    private int rows;
+
+    // 格子 c 的实体为 cellItems[cellStart[c] .. cellStart[c + 1])
+    private int[] cellStart = new int[1];
+    private final int[] cellItems;
+    private final int[] itemCell; // 按存活列表顺序记录每个实体所在格子
+
+    public SpatialGrid(int capacity) {
+        this(capacity, DEFAULT_CELL_SIZE);
+    }
+
+    public SpatialGrid(int capacity, int cellSize) {
+        this.cellSize = cellSize;
+        cellItems = new int[capacity];
+        itemCell = new int[capacity];
+    }
+
+    // 以实体的 (x, y) 为锚点重建网格，场地尺寸变化时自动调整格子数
+    public void rebuild(EntityPool pool, int width, int height) {
+        int c = Math.max(1, (width + cellSize - 1) / cellSize);
+        int r = Math.max(1, (height + cellSize - 1) / cellSize);
+        if (c * r + 1 > cellStart.length) {
+            cellStart = new int[c * r + 1];
+        }
+        cols = c;
+        rows = r;
+
+        int cells = cols * rows;
+        int[] start = cellStart;
+        for (int i = 0; i <= cells; i++) start[i] = 0;
+
+        // 计数
+        int n = pool.size;
+        for (int k = 0; k < n; k++) {
+            int slot = pool.live[k];
+            int cell = row(pool.y[slot]) * cols + col(pool.x[slot]);
+            itemCell[k] = cell;
+            start[cell + 1]++;
+        }
+        // 前缀和
+        for (int i = 0; i < cells; i++) start[i + 1] += start[i];
+        // 稳定分配：同一格子内保持存活列表顺序，之后再把 start 移回原位
+        for (int k = 0; k < n; k++) {
+            cellItems[start[itemCell[k]]++] = pool.live[k];
+        }
+        for (int i = cells; i > 0; i--) start[i] = start[i - 1];
+        start[0] = 0;
+    }
+
+    // 把锚点落在 [minX, maxX] x [minY, maxY] 覆盖格子内的槽位写入 out，返回数量
+    public int query(float minX, float minY, float maxX, float maxY, int[] out) {
+        int c0 = col(minX);
+        int c1 = col(maxX);
+        int r0 = row(minY);
+        int r1 = row(maxY);
+        int count = 0;
+        for (int r = r0; r <= r1; r++) {
+            int base = r * cols;
+            int from = cellStart[base + c0];
+            int to = cellStart[base + c1 + 1];
+            // 同一行相邻格子在 cellItems 中是连续的
+            for (int i = from; i < to; i++) {
+                out[count++] = cellItems[i];
+            }
+        }
+        return count;
+    }
+
+    // 场地外的坐标夹到边缘格子，保证查询与重建一致
+    private int col(float x) {
+        int c = (int) Math.floor(x / cellSize);
+        return c < 0 ? 0 : (c >= cols ? cols - 1 : c);
+    }
+
+    private int row(float y) {
+        int r = (int) Math.floor(y / cellSize);
+        return r < 0 ? 0 : (r >= rows ? rows - 1 : r);
+    }
+}
@@ -0,0 +1,36 @@
+import java.util.concurrent.atomic.AtomicInteger;
+
+// 三缓冲交换：模拟线程写后台缓冲，发布时与中间缓冲原子交换；
+// 渲染线程有新数据时把自己的前台缓冲与中间缓冲交换。双方都不加锁、不等待
+public class StateExchange {
+
+    private static final int INDEX_MASK = 3;
+    private static final int FRESH = 4; // 中间缓冲里是尚未被取走的新快照
+
+    private final RenderState[] states;
+    private final AtomicInteger middle = new AtomicInteger(1);
+    private int back = 0; // 只由模拟线程访问
+    private int front = 2; // 只由渲染线程访问
+
+    public StateExchange(GameConfig config) {
+        states = new RenderState[]{new RenderState(config), new RenderState(config), new RenderState(config)};
+    }
+
+    // 模拟线程：取得可写的后台缓冲
+    public RenderState backBuffer() {
+        return states[back];
+    }
+
+    // 模拟线程：发布后台缓冲
+    public void publish() {
+        back = middle.getAndSet(back | FRESH) & INDEX_MASK;
+    }
+
+    // 渲染线程：取得最新快照，没有新数据时返回上一次的
+    public RenderState latest() {
+        if ((middle.get() & FRESH) != 0) {
+            front = middle.getAndSet(front) & INDEX_MASK;
+        }
+        return states[front];
+    }
+}
@@ -0,0 +1,78 @@
+// 连续碰撞检测：判断一段位移（线段 p0 -> p1）在这一帧内是否碰到形状，返回首次接触的时刻 t ∈ [0, 1]，没有碰到返回 -1
+// 起点已在形状内时返回 0；边界算作接触，与离散检测的 <= 一致
+// 运动的物体先换到目标的参照系：相对位移 = 物体位移 - 目标位移，这样两者都在动时结果仍然精确
+public class Sweep {
+
+    // 线段与轴对齐矩形（slab 法）
+    static float box(float x0, float y0, float x1, float y1, float minX, float minY, float maxX, float maxY) {
+        float tMin = 0;
+        float tMax = 1;
+        float dx = x1 - x0;
+        if (dx == 0) {
+            if (x0 < minX || x0 > maxX) return -1;
+        } else {
+            float t1 = (minX - x0) / dx;
+            float t2 = (maxX - x0) / dx;
+            if (t1 > t2) {
+                float t = t1;
+                t1 = t2;
+                t2 = t;
+            }
+            tMin = Math.max(tMin, t1);
+            tMax = Math.min(tMax, t2);
+            if (tMin > tMax) return -1;
+        }
+        float dy = y1 - y0;
+        if (dy == 0) {
+            if (y0 < minY || y0 > maxY) return -1;
+        } else {
+            float t1 = (minY - y0) / dy;
+            float t2 = (maxY - y0) / dy;
+            if (t1 > t2) {
+                float t = t1;
+                t1 = t2;
+                t2 = t;
+            }
+            tMin = Math.max(tMin, t1);
+            tMax = Math.min(tMax, t2);
+            if (tMin > tMax) return -1;
+        }
+        return tMin;
+    }
+
+    // 线段与圆
+    static float circle(float x0, float y0, float x1, float y1, float cx, float cy, float r) {
+        float mx = x0 - cx;
+        float my = y0 - cy;
+        float c = mx * mx + my * my - r * r;
+        if (c <= 0) return 0;
+        float dx = x1 - x0;
+        float dy = y1 - y0;
+        float a = dx * dx + dy * dy;
+        if (a == 0) return -1;
+        float b = mx * dx + my * dy;
+        if (b >= 0) return -1; // 正在远离圆心
+        float disc = b * b - a * c;
+        if (disc < 0) return -1;
+        float t = (-b - (float) Math.sqrt(disc)) / a;
+        return t <= 1 ? Math.max(0, t) : -1;
+    }
+
+    // 半径为 r 的圆扫过矩形：线段与矩形外扩 r 的圆角矩形（两个外扩矩形加四个角上的圆）
+    static float roundedBox(float x0, float y0, float x1, float y1,
+                            float minX, float minY, float maxX, float maxY, float r) {
+        float t = earliest(-1, box(x0, y0, x1, y1, minX - r, minY, maxX + r, maxY));
+        t = earliest(t, box(x0, y0, x1, y1, minX, minY - r, maxX, maxY + r));
+        t = earliest(t, circle(x0, y0, x1, y1, minX, minY, r));
+        t = earliest(t, circle(x0, y0, x1, y1, maxX, minY, r));
+        t = earliest(t, circle(x0, y0, x1, y1, minX, maxY, r));
+        t = earliest(t, circle(x0, y0, x1, y1, maxX, maxY, r));
+        return t;
+    }
+
+    private static float earliest(float a, float b) {
+        if (a < 0) return b;
+        if (b < 0) return a;
+        return Math.min(a, b);
+    }
+}
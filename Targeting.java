@@ -0,0 +1,135 @@
+// 自动瞄准：在存活障碍物中选出最近的 k 个并计算子弹方向
+// 用容量为 k 的大顶堆做部分选择，O(n log k)，全部使用预分配的基本类型数组，不产生垃圾
+// 可选提前量：按目标当前速度与子弹速度求拦截点
+public class Targeting {
+
+    private static final int HALF_WIDTH = World.OBSTACLE_WIDTH / 2;
+    private static final int HALF_HEIGHT = World.OBSTACLE_HEIGHT / 2;
+
+    // 大顶堆，堆顶是当前候选中最远的目标
+    private final int[] heapSlot;
+    private final float[] heapDist;
+    private int heapSize;
+
+    // select() 的结果，由近到远
+    final int[] targets;
+
+    // aim() 的结果，单位方向
+    float dirX, dirY;
+
+    public Targeting(int maxTargets) {
+        heapSlot = new int[maxTargets];
+        heapDist = new float[maxTargets];
+        targets = new int[maxTargets];
+    }
+
+    // 选出离 (px, py) 最近的至多 k 个障碍物，写入 targets，返回数量
+    public int select(EntityPool obs, float px, float py, int k) {
+        return select(obs, px, py, k, HALF_WIDTH, HALF_HEIGHT);
+    }
+
+    // 同上，实体中心为坐标加 (halfWidth, halfHeight)；子弹的坐标就是中心，传 0
+    public int select(EntityPool obs, float px, float py, int k, float halfWidth, float halfHeight) {
+        k = Math.min(k, heapSlot.length);
+        heapSize = 0;
+        if (k <= 0) return 0;
+        for (int n = 0; n < obs.size; n++) {
+            int i = obs.live[n];
+            float dx = obs.x[i] + halfWidth - px;
+            float dy = obs.y[i] + halfHeight - py;
+            float dist = dx * dx + dy * dy;
+            if (heapSize < k) {
+                heapSlot[heapSize] = i;
+                heapDist[heapSize] = dist;
+                siftUp(heapSize++);
+            } else if (closer(dist, i, heapDist[0], heapSlot[0])) {
+                heapSlot[0] = i;
+                heapDist[0] = dist;
+                siftDown(0, heapSize);
+            }
+        }
+        // 依次弹出堆顶，从后往前填，得到由近到远的顺序
+        int count = heapSize;
+        for (int end = count - 1; end >= 0; end--) {
+            targets[end] = heapSlot[0];
+            heapSlot[0] = heapSlot[end];
+            heapDist[0] = heapDist[end];
+            siftDown(0, end);
+        }
+        return count;
+    }
+
+    // 计算从 (px, py) 射向障碍物 slot 的方向，距离太近时返回 false
+    // lead 为 true 时瞄准拦截点：|d + v t| = s t，取最小正根；追不上时退回直接瞄准
+    public boolean aim(EntityPool obs, int slot, float px, float py, float bulletSpeed, boolean lead) {
+        double dx = obs.x[slot] + HALF_WIDTH - px;
+        double dy = obs.y[slot] + HALF_HEIGHT - py;
+        if (lead) {
+            double vx = obs.vx[slot];
+            double vy = obs.vy[slot];
+            double a = vx * vx + vy * vy - (double) bulletSpeed * bulletSpeed;
+            double b = 2 * (dx * vx + dy * vy);
+            double c = dx * dx + dy * dy;
+            double t = interceptTime(a, b, c);
+            if (t > 0) {
+                dx += vx * t;
+                dy += vy * t;
+            }
+        }
+        double len = Math.sqrt(dx * dx + dy * dy);
+        if (len <= 0.1) return false;
+        dirX = (float) (dx / len);
+        dirY = (float) (dy / len);
+        return true;
+    }
+
+    // a t^2 + b t + c = 0 的最小正根，没有时返回 -1
+    private static double interceptTime(double a, double b, double c) {
+        if (Math.abs(a) < 1e-9) {
+            return b < 0 ? -c / b : -1;
+        }
+        double disc = b * b - 4 * a * c;
+        if (disc < 0) return -1;
+        double sq = Math.sqrt(disc);
+        double t1 = (-b - sq) / (2 * a);
+        double t2 = (-b + sq) / (2 * a);
+        double t = Math.min(t1, t2);
+        if (t <= 0) t = Math.max(t1, t2);
+        return t > 0 ? t : -1;
+    }
+
+    // 距离相同时按槽位号排序，保证结果确定
+    private static boolean closer(float d1, int s1, float d2, int s2) {
+        return d1 < d2 || (d1 == d2 && s1 < s2);
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >> 1;
+            if (!closer(heapDist[parent], heapSlot[parent], heapDist[i], heapSlot[i])) break;
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i, int size) {
+        while (true) {
+            int l = 2 * i + 1;
+            if (l >= size) break;
+            int r = l + 1;
+            int far = (r < size && closer(heapDist[l], heapSlot[l], heapDist[r], heapSlot[r])) ? r : l;
+            if (!closer(heapDist[i], heapSlot[i], heapDist[far], heapSlot[far])) break;
+            swap(i, far);
+            i = far;
+        }
+    }
+
+    private void swap(int a, int b) {
+        int s = heapSlot[a];
+        heapSlot[a] = heapSlot[b];
+        heapSlot[b] = s;
+        float d = heapDist[a];
+        heapDist[a] = heapDist[b];
+        heapDist[b] = d;
+    }
+}
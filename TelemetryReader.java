@@ -0,0 +1,246 @@
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+// 遥测读取与汇总：按块流式读取 TelemetryRecorder 写出的文件，只解压统计要用的列，内存占用与文件大小无关
+// 汇总整个会话：帧数、局数与分数、受击、发射、护盾时间占比、实体数量和帧耗时分布
+// 局的边界看 game_over 列：进入游戏结束画面的那一帧算一局结束；结束画面上的帧不计入护盾、实体数量和帧耗时
+// tick 列没有递增（另一次运行的文件）时开始新的会话，上一会话没结束的局不计；最后一局可能还没结束
+// 用法：java TelemetryReader <文件或目录>...   目录下的 *.stl 按文件名顺序读取
+public class TelemetryReader {
+
+    // 汇总用到的列，顺序即 values 的下标
+    private static final String[] NEEDED = {"score", "obstacles", "enemy_bullets", "hits", "shield", "tick_nanos",
+            "shots", "tick", "game_over"};
+    private static final int SCORE = 0;
+    private static final int OBSTACLES = 1;
+    private static final int ENEMY_BULLETS = 2;
+    private static final int HITS = 3;
+    private static final int SHIELD = 4;
+    private static final int TICK_NANOS = 5;
+    private static final int SHOTS = 6;
+    private static final int TICK = 7;
+    private static final int GAME_OVER = 8;
+
+    // 会话统计
+    static class Stats {
+        long files;
+        long blocks;
+        long ticks;
+        long playTicks; // 不在游戏结束画面的帧，护盾、实体数量和帧耗时只统计这些帧
+        long sessions;
+        long games; // 已结束的局
+        long bestScore;
+        long totalFinalScore; // 已结束各局的最终分数之和
+        long hits;
+        long shots;
+        long shieldTicks;
+        long obstacleSum;
+        long obstacleMax;
+        long bulletSum;
+        long bulletMax;
+        long tickNanosSum;
+        long compressedBytes;
+        long encodedBytes;
+        final LatencyHistogram tickTime = new LatencyHistogram();
+
+        // 同一会话内跨块、跨文件延续的上一行
+        boolean started;
+        long lastTick;
+        long lastScore;
+        long lastHits;
+        long lastShots;
+        boolean lastOver;
+
+        void add(long[][] v, int rows) {
+            for (int r = 0; r < rows; r++) {
+                long tick = v[TICK][r];
+                long score = v[SCORE][r];
+                long hits = v[HITS][r];
+                long shots = v[SHOTS][r];
+                boolean over = v[GAME_OVER][r] != 0;
+                if (started && tick <= lastTick) started = false; // 另一次录制从 0 重新计帧
+                if (!started) {
+                    sessions++;
+                } else {
+                    if (over && !lastOver) {
+                        games++;
+                        totalFinalScore += score;
+                    }
+                    // 重开后从 0 计起、读档后可能变小，只累计增加的部分
+                    if (hits > lastHits) this.hits += hits - lastHits;
+                    if (shots > lastShots) this.shots += shots - lastShots;
+                }
+                started = true;
+                lastTick = tick;
+                lastScore = score;
+                lastHits = hits;
+                lastShots = shots;
+                lastOver = over;
+                bestScore = Math.max(bestScore, score);
+                if (over) continue;
+
+                playTicks++;
+                shieldTicks += v[SHIELD][r];
+                obstacleSum += v[OBSTACLES][r];
+                obstacleMax = Math.max(obstacleMax, v[OBSTACLES][r]);
+                bulletSum += v[ENEMY_BULLETS][r];
+                bulletMax = Math.max(bulletMax, v[ENEMY_BULLETS][r]);
+                tickNanosSum += v[TICK_NANOS][r];
+                tickTime.record(v[TICK_NANOS][r]);
+            }
+            ticks += rows;
+        }
+    }
+
+    // 读取时复用的缓冲
+    private byte[] packed = new byte[1 << 16];
+    private byte[] raw = new byte[1 << 16];
+    private long[][] values = new long[NEEDED.length][TelemetryRecorder.BLOCK_ROWS];
+    private final Inflater inflater = new Inflater();
+
+    public void read(Path path, Stats stats) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16))) {
+            if (in.readInt() != TelemetryRecorder.MAGIC) throw new IOException("not a telemetry file: " + path);
+            int version = in.readUnsignedByte();
+            if (version != TelemetryRecorder.VERSION) throw new IOException("unsupported telemetry version " + version);
+            // 文件中第 c 列对应 values 的哪一行，-1 表示不需要
+            int columns = in.readUnsignedByte();
+            int[] target = new int[columns];
+            for (int c = 0; c < columns; c++) target[c] = indexOf(in.readUTF());
+            stats.files++;
+
+            while (true) {
+                int rows;
+                try {
+                    rows = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                try {
+                    readBlock(in, rows, target, stats);
+                } catch (EOFException e) {
+                    break; // 最后一块没写完
+                }
+            }
+        }
+    }
+
+    private void readBlock(DataInputStream in, int rows, int[] target, Stats stats) throws IOException {
+        if (rows <= 0) throw new IOException("corrupt telemetry block: " + rows + " rows");
+        if (rows > values[0].length) values = new long[NEEDED.length][rows];
+        for (int c = 0; c < target.length; c++) {
+            int encoded = in.readInt();
+            int compressed = in.readInt();
+            if (target[c] < 0) {
+                in.skipNBytes(compressed);
+                continue;
+            }
+            if (compressed > packed.length) packed = new byte[compressed];
+            if (encoded > raw.length) raw = new byte[encoded];
+            in.readFully(packed, 0, compressed);
+            inflater.reset();
+            inflater.setInput(packed, 0, compressed);
+            try {
+                if (inflater.inflate(raw, 0, encoded) != encoded) throw new IOException("corrupt telemetry column");
+            } catch (DataFormatException e) {
+                throw new IOException("corrupt telemetry column: " + e.getMessage());
+            }
+            decode(raw, encoded, values[target[c]], rows);
+            stats.compressedBytes += compressed;
+            stats.encodedBytes += encoded;
+        }
+        // 文件里缺少的列按 0 处理
+        for (int i = 0; i < NEEDED.length; i++) {
+            if (!present(target, i)) Arrays.fill(values[i], 0, rows, 0);
+        }
+        stats.add(values, rows);
+        stats.blocks++;
+    }
+
+    private static boolean present(int[] target, int i) {
+        for (int t : target) {
+            if (t == i) return true;
+        }
+        return false;
+    }
+
+    private static int indexOf(String column) {
+        for (int i = 0; i < NEEDED.length; i++) {
+            if (NEEDED[i].equals(column)) return i;
+        }
+        return -1;
+    }
+
+    // TelemetryRecorder.encode 的逆过程
+    static void decode(byte[] src, int length, long[] dst, int rows) throws IOException {
+        int pos = 0;
+        long prev = 0;
+        for (int r = 0; r < rows; r++) {
+            long v = 0;
+            int shift = 0;
+            byte b;
+            do {
+                if (pos >= length || shift > 63) throw new IOException("corrupt telemetry column");
+                b = src[pos++];
+                v |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            prev += (v >>> 1) ^ -(v & 1);
+            dst[r] = prev;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (String arg : args) {
+            Path p = Paths.get(arg);
+            if (Files.isDirectory(p)) {
+                try (Stream<Path> s = Files.list(p)) {
+                    s.filter(f -> f.toString().endsWith(TelemetryRecorder.SUFFIX)).sorted().forEach(files::add);
+                }
+            } else {
+                files.add(p);
+            }
+        }
+        if (files.isEmpty()) {
+            System.err.println("Usage: java TelemetryReader <file or directory>...");
+            System.exit(2);
+        }
+
+        TelemetryReader reader = new TelemetryReader();
+        Stats s = new Stats();
+        for (Path file : files) {
+            try {
+                reader.read(file, s);
+            } catch (IOException e) {
+                System.err.println("Failed to read telemetry file " + file + ": " + e.getMessage());
+            }
+        }
+        long ticks = Math.max(1, s.playTicks);
+        System.out.printf(Locale.ROOT, "files %d, blocks %d, sessions %d, ticks %d (%d on the game over screen)%n",
+                s.files, s.blocks, s.sessions, s.ticks, s.ticks - s.playTicks);
+        System.out.printf(Locale.ROOT, "games finished %d, mean final score %.1f, best score %d, current score %d%n",
+                s.games, s.games == 0 ? 0.0 : (double) s.totalFinalScore / s.games, s.bestScore, s.lastScore);
+        System.out.printf(Locale.ROOT, "hits %d, shots fired %d, shield on %.1f%% of ticks in play%n", s.hits, s.shots,
+                100.0 * s.shieldTicks / ticks);
+        System.out.printf(Locale.ROOT, "obstacles mean %.1f max %d, enemy bullets mean %.1f max %d%n",
+                (double) s.obstacleSum / ticks, s.obstacleMax, (double) s.bulletSum / ticks, s.bulletMax);
+        System.out.printf(Locale.ROOT, "tick time mean %.1f us, p50 %.1f us, p99 %.1f us, p99.9 %.1f us, max %.1f us%n",
+                s.tickNanosSum / 1e3 / ticks, s.tickTime.percentile(50) / 1e3, s.tickTime.percentile(99) / 1e3,
+                s.tickTime.percentile(99.9) / 1e3, s.tickTime.max() / 1e3);
+        System.out.printf(Locale.ROOT, "read %d compressed bytes for %d encoded bytes (%.2f bytes per tick per column)%n",
+                s.compressedBytes, s.encodedBytes, (double) s.compressedBytes / Math.max(1, s.ticks) / NEEDED.length);
+    }
+}
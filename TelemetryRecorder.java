@@ -0,0 +1,242 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
+import java.util.Date;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.Deflater;
+
+// 遥测录制：每帧把若干指标写进固定大小的基本类型缓冲，攒满一块交给后台线程按列编码落盘
+// 块内按行存放（一帧一段连续的 long，热路径只写这一段内存），写线程编码时再按列取出
+// 热路径 record() 只做几次数组写入，不做 I/O、不分配对象、不加锁：块放在环形数组里，用两个 volatile 序号交接，
+// 写线程跟不上、没有空闲块时丢弃一块并计数，从不阻塞模拟线程
+// 写线程把每列按“与上一行之差 → zigzag → 变长整数”编码，再各自用 Deflater 压缩，读取时可以只解压需要的列
+// 文件写满 maxBytes 后换下一个，最多保留 maxFiles 个，更早的删除
+//
+// 文件格式（大端序）：
+//   magic "STEL", 版本 byte, 列数 byte, 各列名称（writeUTF）
+//   之后若干块：行数 int, 每列 { 编码后字节数 int, 压缩后字节数 int, 压缩数据 }
+// 每列第一行与 0 做差，块之间互不依赖；文件末尾可能有一块没写完（进程被杀），读取时忽略
+public class TelemetryRecorder implements AutoCloseable {
+
+    static final int MAGIC = 0x5354454C; // "STEL"
+    static final int VERSION = 1;
+    static final String SUFFIX = ".stl";
+
+    // 列，下标即列号
+    static final int TICK = 0; // 录制开始后的帧号
+    static final int SCORE = 1;
+    static final int OBSTACLES = 2; // 存活障碍物
+    static final int ENEMY_BULLETS = 3; // 存活敌方子弹
+    static final int HITS = 4; // 本局被击中次数
+    static final int SHIELD = 5; // 护盾开启
+    static final int TICK_NANOS = 6; // 这一帧的耗时
+    static final int SHOTS = 7; // 累计发射的玩家子弹
+    static final int GAME_OVER = 8; // 处于游戏结束画面
+    static final String[] COLUMNS = {"tick", "score", "obstacles", "enemy_bullets", "hits", "shield", "tick_nanos",
+            "shots", "game_over"};
+
+    static final int BLOCK_ROWS = 4096;
+    private static final int BLOCKS = 4; // 含模拟线程正在填的一块
+    static final long DEFAULT_MAX_BYTES = 8L << 20;
+    static final int DEFAULT_MAX_FILES = 16;
+
+    // 一块数据，第 r 行第 c 列在 values[r * COLUMNS.length + c]
+    private static final class Block {
+        final long[] values = new long[BLOCK_ROWS * COLUMNS.length];
+        int rows;
+    }
+
+    private final Path dir;
+    private final String prefix;
+    private final long maxBytes;
+    private final int maxFiles;
+
+    // 第 k 块（k 从 0 计）使用 blocks[k % BLOCKS]；[consumed, produced) 已交给写线程，produced 是模拟线程正在填的块
+    private final Block[] blocks = new Block[BLOCKS];
+    private volatile long produced;
+    private volatile long consumed;
+    private Block current;
+    private long ticks;
+    private volatile long droppedRows; // 只由模拟线程写
+    private volatile long lostRows; // 写盘失败后丢弃的行，只由写线程写
+    private volatile boolean closed;
+    private final Thread writer;
+
+    // 写线程的状态
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+    private final byte[] raw = new byte[BLOCK_ROWS * 10];
+    private final byte[] packed = new byte[BLOCK_ROWS * 11 + 64];
+    private final ArrayDeque<Path> files = new ArrayDeque<>();
+    private DataOutputStream out;
+    private Path path;
+    private long written;
+    private int fileIndex;
+    private boolean failed;
+
+    public TelemetryRecorder(Path dir) {
+        this(dir, DEFAULT_MAX_BYTES, DEFAULT_MAX_FILES);
+    }
+
+    public TelemetryRecorder(Path dir, long maxBytes, int maxFiles) {
+        this.dir = dir;
+        this.prefix = "telemetry-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+        this.maxBytes = maxBytes;
+        this.maxFiles = Math.max(1, maxFiles);
+        for (int i = 0; i < BLOCKS; i++) blocks[i] = new Block();
+        current = blocks[0];
+
+        writer = new Thread(this::writeLoop, "telemetry-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // 模拟线程每帧调用一次，tickNanos 为这一帧的耗时
+    public void record(World world, long tickNanos) {
+        Block b = current;
+        long[] v = b.values;
+        int o = b.rows * COLUMNS.length;
+        v[o + TICK] = ticks++;
+        v[o + SCORE] = world.score;
+        v[o + OBSTACLES] = world.obstacles.size;
+        v[o + ENEMY_BULLETS] = world.enemyBullets.size;
+        v[o + HITS] = world.playerHitCount;
+        v[o + SHIELD] = world.protectionOn ? 1 : 0;
+        v[o + TICK_NANOS] = tickNanos;
+        v[o + SHOTS] = world.shotsFired;
+        v[o + GAME_OVER] = world.gameOver ? 1 : 0;
+        b.rows++;
+        if (b.rows == BLOCK_ROWS) handOff();
+    }
+
+    // 把未满的当前块也交给写线程，例如一局结束时
+    public void flush() {
+        if (current.rows > 0) handOff();
+    }
+
+    // 累计丢弃的行数
+    public long droppedRows() {
+        return droppedRows + lostRows;
+    }
+
+    private void handOff() {
+        long next = produced + 1;
+        if (next - consumed >= BLOCKS) {
+            droppedRows += current.rows; // 写线程跟不上，丢掉这一块继续录
+            current.rows = 0;
+            return;
+        }
+        current = blocks[(int) (next % BLOCKS)];
+        produced = next;
+        LockSupport.unpark(writer);
+    }
+
+    // 写出剩余数据并等写线程结束
+    @Override
+    public void close() {
+        if (closed) return;
+        flush();
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeLoop() {
+        try {
+            while (true) {
+                long k = consumed;
+                if (k == produced) {
+                    if (closed && k == produced) break;
+                    LockSupport.park(this);
+                    continue;
+                }
+                Block b = blocks[(int) (k % BLOCKS)];
+                if (!failed) {
+                    try {
+                        write(b);
+                    } catch (IOException e) {
+                        System.err.println("Failed to write telemetry file: " + path);
+                        failed = true; // 之后的块直接丢弃
+                    }
+                }
+                if (failed) lostRows += b.rows;
+                b.rows = 0;
+                consumed = k + 1;
+            }
+        } finally {
+            closeFile();
+            deflater.end();
+        }
+    }
+
+    private void write(Block b) throws IOException {
+        if (out == null) open();
+        out.writeInt(b.rows);
+        written += 4;
+        for (int c = 0; c < COLUMNS.length; c++) {
+            int n = encode(b.values, c, COLUMNS.length, b.rows, raw);
+            deflater.reset();
+            deflater.setInput(raw, 0, n);
+            deflater.finish();
+            int m = 0;
+            while (!deflater.finished()) {
+                m += deflater.deflate(packed, m, packed.length - m);
+            }
+            out.writeInt(n);
+            out.writeInt(m);
+            out.write(packed, 0, m);
+            written += 8 + m;
+        }
+        out.flush(); // 读取工具可以读正在写的文件
+        if (written >= maxBytes) closeFile();
+    }
+
+    // 取出 values[offset + r * stride] 这一列，与上一行之差做 zigzag 后写成变长整数，返回字节数
+    static int encode(long[] values, int offset, int stride, int rows, byte[] dst) {
+        int pos = 0;
+        long prev = 0;
+        for (int r = 0, i = offset; r < rows; r++, i += stride) {
+            long d = values[i] - prev;
+            prev = values[i];
+            pos = ReplayRecorder.putVarint(dst, pos, (d << 1) ^ (d >> 63));
+        }
+        return pos;
+    }
+
+    private void open() throws IOException {
+        Files.createDirectories(dir);
+        path = dir.resolve(String.format("%s-%03d%s", prefix, fileIndex++, SUFFIX));
+        out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16));
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeByte(COLUMNS.length);
+        for (String name : COLUMNS) out.writeUTF(name);
+        written = out.size();
+        files.add(path);
+        while (files.size() > maxFiles) {
+            Path old = files.removeFirst();
+            try {
+                Files.deleteIfExists(old);
+            } catch (IOException e) {
+                System.err.println("Failed to delete old telemetry file: " + old);
+            }
+        }
+    }
+
+    private void closeFile() {
+        if (out == null) return;
+        try {
+            out.close();
+        } catch (IOException e) {
+            System.err.println("Failed to write telemetry file: " + path);
+        }
+        out = null;
+    }
+}
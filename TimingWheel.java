@@ -0,0 +1,148 @@
+import java.util.Arrays;
+
+// 哈希时间轮：事件按到期帧号散列到 256 个槽位，每个槽位是一条侵入式链表
+// 每帧只遍历当前槽位，把恰好在这一帧到期的事件取出；超过一圈的事件留在槽位里等下一圈
+// 事件节点放在预分配的数组里，用空闲链表回收，调度和到期都不分配内存（容量不够时才扩容）
+public class TimingWheel {
+
+    private static final int SLOTS = 256; // 必须是 2 的幂
+    private static final int MASK = SLOTS - 1;
+
+    private final int[] head = new int[SLOTS];
+    private int[] next;
+    private int[] kind;
+    private int[] payload;
+    private long[] due;
+    private int free; // 空闲节点链表头
+    private int pending;
+
+    private long now;
+
+    // 本帧到期的事件，按 (kind, payload) 排序，结果与调度的先后顺序无关
+    int dueCount;
+    int[] dueKind;
+    int[] duePayload;
+
+    public TimingWheel(int capacity) {
+        capacity = Math.max(1, capacity);
+        next = new int[capacity];
+        kind = new int[capacity];
+        payload = new int[capacity];
+        due = new long[capacity];
+        dueKind = new int[capacity];
+        duePayload = new int[capacity];
+        clear(0);
+    }
+
+    // 丢弃所有事件，时间设为 now
+    public void clear(long now) {
+        this.now = now;
+        Arrays.fill(head, -1);
+        for (int i = 0; i < next.length; i++) {
+            next[i] = i + 1 < next.length ? i + 1 : -1;
+        }
+        free = 0;
+        pending = 0;
+        dueCount = 0;
+    }
+
+    public long now() {
+        return now;
+    }
+
+    public int pending() {
+        return pending;
+    }
+
+    // 复制另一个时间轮的全部待处理事件（节点下标保持一致），容量不够时扩容
+    public void copyFrom(TimingWheel other) {
+        while (next.length < other.next.length) grow();
+        int n = other.next.length;
+        System.arraycopy(other.head, 0, head, 0, SLOTS);
+        System.arraycopy(other.next, 0, next, 0, n);
+        System.arraycopy(other.kind, 0, kind, 0, n);
+        System.arraycopy(other.payload, 0, payload, 0, n);
+        System.arraycopy(other.due, 0, due, 0, n);
+        // 本方多出的节点接到空闲链表末尾
+        for (int i = n; i < next.length; i++) {
+            next[i] = i + 1 < next.length ? i + 1 : -1;
+        }
+        free = other.free;
+        if (n < next.length) {
+            if (free < 0) {
+                free = n;
+            } else {
+                int tail = free;
+                while (next[tail] >= 0) tail = next[tail];
+                next[tail] = n;
+            }
+        }
+        pending = other.pending;
+        now = other.now;
+        dueCount = 0;
+    }
+
+    // 安排一个在第 at 帧到期的事件，at 必须晚于当前帧
+    public void schedule(int kind, int payload, long at) {
+        if (at <= now) throw new IllegalArgumentException("event must be due after tick " + now);
+        if (free < 0) grow();
+        int n = free;
+        free = next[n];
+        this.kind[n] = kind;
+        this.payload[n] = payload;
+        due[n] = at;
+        int slot = (int) at & MASK;
+        next[n] = head[slot];
+        head[slot] = n;
+        pending++;
+    }
+
+    // 前进到第 tick 帧（必须是下一帧），取出这一帧到期的事件，返回个数
+    public int advance(long tick) {
+        now = tick;
+        dueCount = 0;
+        int slot = (int) tick & MASK;
+        int prev = -1;
+        for (int n = head[slot]; n >= 0; ) {
+            int following = next[n];
+            if (due[n] == tick) {
+                if (prev < 0) head[slot] = following; else next[prev] = following;
+                addDue(kind[n], payload[n]);
+                next[n] = free;
+                free = n;
+                pending--;
+            } else {
+                prev = n;
+            }
+            n = following;
+        }
+        return dueCount;
+    }
+
+    // 插入排序，到期事件通常只有零到两个
+    private void addDue(int k, int p) {
+        int i = dueCount++;
+        while (i > 0 && (dueKind[i - 1] > k || (dueKind[i - 1] == k && duePayload[i - 1] > p))) {
+            dueKind[i] = dueKind[i - 1];
+            duePayload[i] = duePayload[i - 1];
+            i--;
+        }
+        dueKind[i] = k;
+        duePayload[i] = p;
+    }
+
+    private void grow() {
+        int old = next.length;
+        int capacity = old * 2;
+        next = Arrays.copyOf(next, capacity);
+        kind = Arrays.copyOf(kind, capacity);
+        payload = Arrays.copyOf(payload, capacity);
+        due = Arrays.copyOf(due, capacity);
+        dueKind = Arrays.copyOf(dueKind, capacity);
+        duePayload = Arrays.copyOf(duePayload, capacity);
+        for (int i = old; i < capacity; i++) {
+            next[i] = i + 1 < capacity ? i + 1 : -1;
+        }
+        free = old;
+    }
+}
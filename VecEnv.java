@@ -0,0 +1,245 @@
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// 强化学习用的批量环境：N 个无头对局同步推进，gym 风格的 reset() / step(actions)
+// 观测写进预分配的 obs 数组（每个环境 obsSize 个 float），奖励和结束标志写进平行的 rewards / dones 数组
+// 一局结束（或到达帧数上限）的环境在同一次 step 里自动重开，obs 中是新一局的初始观测，与常见 VecEnv 的约定一致
+// 第 i 个环境第 e 局的种子只取决于基准种子、i 和 e，结果与线程数无关、可复现；热身后单线程的 step() 不分配内存
+//
+// 动作：World.INPUT_* 的低 5 位（四个方向键 + 开火），共 32 种
+// 奖励：每存活一帧 +1，每被敌方子弹击中一次 -hitPenalty，本局结束再 -deathPenalty
+// 观测布局（坐标与位移按场地宽高归一化，速度为每帧位移）：
+//   [0] 玩家 x / 宽  [1] 玩家 y / 高  [2] 护盾开启  [3] 护盾剩余帧 / 护盾持续帧数
+//   [4] 受击次数 / 受击上限  [5] 分数 / 10000  [6] 还能开火
+//   之后最近的 obstacles 个障碍物、最近的 bullets 颗敌方子弹，由近到远，每个 5 个值：
+//     中心相对玩家的 dx / 宽, dy / 高, vx / 宽, vy / 高, 存在（不足时整组为 0）
+public class VecEnv {
+
+    static final int ACTION_MASK = World.INPUT_LEFT | World.INPUT_RIGHT | World.INPUT_UP | World.INPUT_DOWN
+            | World.INPUT_FIRE;
+    static final int HEADER = 7;
+    static final int ENTITY = 5;
+    static final int DEFAULT_OBSTACLES = 8;
+    static final int DEFAULT_BULLETS = 16;
+
+    // dones 中的值
+    static final byte RUNNING = 0;
+    static final byte TERMINATED = 1; // 游戏结束
+    static final byte TRUNCATED = 2; // 到达帧数上限
+
+    private static final float SCORE_SCALE = 1e-4f;
+    // 每个线程分几段，段数固定，热身后不再分配
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final Map<Integer, ForkJoinPool> POOLS = new HashMap<>();
+
+    // 一个环境：世界、最近实体的选择缓冲和本局的计数
+    private static final class Env {
+        final World world;
+        final Targeting targeting;
+        long episode;
+        int hits;
+        int ticks;
+
+        Env(GameConfig config, int nearest) {
+            world = new World(config, 1);
+            targeting = new Targeting(nearest);
+        }
+    }
+
+    // 环境 [from, to) 的一段
+    private final class Chunk extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        final int from;
+        final int to;
+
+        Chunk(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            for (int i = from; i < to; i++) stepEnv(i);
+        }
+    }
+
+    // 根任务：派发其余各段，自己处理第 0 段
+    private final class Root extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected void compute() {
+            for (int c = 1; c < chunks.length; c++) chunks[c].fork();
+            chunks[0].compute();
+            for (int c = chunks.length - 1; c >= 1; c--) chunks[c].join();
+        }
+    }
+
+    final int envs;
+    final int obstacles;
+    final int bullets;
+    final int obsSize;
+    final GameConfig config;
+    final long seed;
+
+    // 每局最多帧数，0 为不限
+    int maxTicks = 0;
+    float hitPenalty = 10;
+    float deathPenalty = 100;
+
+    final float[] obs;
+    final float[] rewards;
+    final byte[] dones;
+    final int[] actions; // step() 时从参数复制，各线程只读
+
+    private final Env[] env;
+    private final ForkJoinPool pool;
+    private final Chunk[] chunks;
+    private final Root root = new Root();
+    private long steps;
+
+    public VecEnv(GameConfig config, int envs, long seed, int threads) {
+        this(config, envs, seed, threads, DEFAULT_OBSTACLES, DEFAULT_BULLETS);
+    }
+
+    public VecEnv(GameConfig config, int envs, long seed, int threads, int obstacles, int bullets) {
+        if (envs < 1) throw new IllegalArgumentException("need at least one environment");
+        this.config = config;
+        this.envs = envs;
+        this.seed = seed;
+        this.obstacles = obstacles;
+        this.bullets = bullets;
+        obsSize = HEADER + ENTITY * (obstacles + bullets);
+        obs = new float[envs * obsSize];
+        rewards = new float[envs];
+        dones = new byte[envs];
+        actions = new int[envs];
+        env = new Env[envs];
+        for (int i = 0; i < envs; i++) env[i] = new Env(config, Math.max(obstacles, bullets));
+
+        threads = Math.max(1, Math.min(threads, envs));
+        pool = threads > 1 ? pool(threads) : null;
+        int chunkCount = threads > 1 ? Math.min(envs, threads * CHUNKS_PER_THREAD) : 1;
+        chunks = new Chunk[chunkCount];
+        for (int c = 0; c < chunkCount; c++) {
+            chunks[c] = new Chunk((int) ((long) envs * c / chunkCount), (int) ((long) envs * (c + 1) / chunkCount));
+        }
+    }
+
+    private static synchronized ForkJoinPool pool(int threads) {
+        return POOLS.computeIfAbsent(threads, ForkJoinPool::new);
+    }
+
+    // 全部环境从第 0 局重新开始，写入初始观测，奖励与结束标志清零
+    public void reset() {
+        for (int i = 0; i < envs; i++) {
+            env[i].episode = 0;
+            restart(i);
+            observe(i);
+            rewards[i] = 0;
+            dones[i] = RUNNING;
+        }
+    }
+
+    // 每个环境应用 actions[i] 并推进一帧
+    public void step(int[] actions) {
+        System.arraycopy(actions, 0, this.actions, 0, envs);
+        if (pool == null) {
+            chunks[0].compute();
+        } else {
+            for (Chunk c : chunks) c.reinitialize();
+            root.reinitialize();
+            pool.invoke(root);
+        }
+        steps += envs;
+    }
+
+    // 累计推进的环境帧数（所有环境之和）
+    public long steps() {
+        return steps;
+    }
+
+    private void stepEnv(int i) {
+        Env e = env[i];
+        World world = e.world;
+        world.step(actions[i] & ACTION_MASK);
+        e.ticks++;
+
+        int hits = world.playerHitCount - e.hits;
+        e.hits = world.playerHitCount;
+        float reward = 1 - hits * hitPenalty;
+        byte done = RUNNING;
+        if (world.gameOver) {
+            reward -= deathPenalty;
+            done = TERMINATED;
+        } else if (maxTicks > 0 && e.ticks >= maxTicks) {
+            done = TRUNCATED;
+        }
+        rewards[i] = reward;
+        dones[i] = done;
+        if (done != RUNNING) {
+            e.episode++;
+            restart(i);
+        }
+        observe(i);
+    }
+
+    private void restart(int i) {
+        Env e = env[i];
+        e.world.rng.setSeed(BatchRunner.gameSeed(seed, e.episode * envs + i));
+        e.world.reset();
+        e.hits = 0;
+        e.ticks = 0;
+    }
+
+    private void observe(int i) {
+        World world = env[i].world;
+        Targeting targeting = env[i].targeting;
+        float sx = 1f / world.width;
+        float sy = 1f / world.height;
+        float px = world.player.x;
+        float py = world.player.y;
+        int o = i * obsSize;
+
+        obs[o] = px * sx;
+        obs[o + 1] = py * sy;
+        obs[o + 2] = world.protectionOn ? 1 : 0;
+        obs[o + 3] = world.protectionOn
+                ? (float) (world.protectionEnds - world.score) / Math.max(1, config.protectionFrames) : 0;
+        obs[o + 4] = (float) world.playerHitCount / Math.max(1, config.hitLimit);
+        obs[o + 5] = world.score * SCORE_SCALE;
+        obs[o + 6] = world.score < config.ceaseFireScore ? 1 : 0;
+        o += HEADER;
+
+        int n = targeting.select(world.obstacles, px, py, obstacles,
+                World.OBSTACLE_WIDTH / 2f, World.OBSTACLE_HEIGHT / 2f);
+        o = nearest(world.obstacles, targeting, n, obstacles, px - World.OBSTACLE_WIDTH / 2f,
+                py - World.OBSTACLE_HEIGHT / 2f, 1, sx, sy, o);
+        n = targeting.select(world.enemyBullets, px, py, bullets, 0, 0);
+        nearest(world.enemyBullets, targeting, n, bullets, px, py, World.ENEMY_BULLET_SPEED, sx, sy, o);
+    }
+
+    // 写入 targets 中的 n 个实体，剩下的 slots - n 组清零；返回下一个写入位置
+    private int nearest(EntityPool pool, Targeting targeting, int n, int slots, float ox, float oy, float speed,
+                        float sx, float sy, int o) {
+        for (int k = 0; k < n; k++, o += ENTITY) {
+            int j = targeting.targets[k];
+            obs[o] = (pool.x[j] - ox) * sx;
+            obs[o + 1] = (pool.y[j] - oy) * sy;
+            obs[o + 2] = pool.vx[j] * speed * sx;
+            obs[o + 3] = pool.vy[j] * speed * sy;
+            obs[o + 4] = 1;
+        }
+        for (int k = n; k < slots; k++, o += ENTITY) {
+            obs[o] = 0;
+            obs[o + 1] = 0;
+            obs[o + 2] = 0;
+            obs[o + 3] = 0;
+            obs[o + 4] = 0;
+        }
+        return o;
+    }
+}
@@ -0,0 +1,120 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+// 批量环境吞吐基准：每秒推进的环境帧数（所有环境之和），按环境数 x 线程数参数化
+// transport=direct 直接调用 VecEnv.step()；transport=mmap 在后台线程跑 EnvServer，经内存映射文件往返，
+// 差值就是共享内存交接的开销（跨进程时用 EnvServer + EnvClient 两个进程测）
+// 每个组合先用两个 VecEnv 从相同种子各走若干步，逐位比较观测、奖励和结束标志，与单线程不同时报错退出
+// 用法：java VecEnvBench [--envs=1,16,64,256,1024] [--threads=1,2,4,8] [--min-ms=1000] [GameConfig 参数...]
+public class VecEnvBench {
+
+    private static final int CHECK_STEPS = 500;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int[] envCounts = GameConfig.intsOption(args, "envs", new int[]{1, 16, 64, 256, 1024});
+        int[] threadCounts = GameConfig.intsOption(args, "threads", new int[]{1, 2, 4, 8});
+        long minNanos = GameConfig.longOption(args, "min-ms", 1000) * 1_000_000L;
+        GameConfig config = GameConfig.fromArgs(args);
+        long seed = config.seed != 0 ? config.seed : 1;
+
+        System.out.println("# cpus=" + Runtime.getRuntime().availableProcessors());
+        System.out.println("transport,envs,threads,batches,env_steps_per_sec,batch_us");
+        Path file = Files.createTempFile("vecenv", ".shm");
+        try {
+            for (int envs : envCounts) {
+                for (int threads : threadCounts) {
+                    if (threads > 1 && threads > envs) continue;
+                    check(config, envs, seed, threads);
+
+                    VecEnv env = new VecEnv(config, envs, seed, threads);
+                    env.reset();
+                    int[] actions = new int[envs];
+                    Rng rng = new Rng(seed);
+                    direct(env, actions, rng, minNanos / 4); // 预热
+                    print("direct", envs, threads, direct(env, actions, rng, minNanos));
+
+                    env = new VecEnv(config, envs, seed, threads);
+                    env.reset();
+                    EnvServer server = new EnvServer(env, file, 2);
+                    Thread thread = new Thread(server, "env-server");
+                    thread.start();
+                    try (EnvClient client = new EnvClient(file)) {
+                        client.reset();
+                        mmap(client, actions, rng, minNanos / 4);
+                        print("mmap", envs, threads, mmap(client, actions, rng, minNanos));
+                        client.shutdown();
+                    }
+                    thread.join();
+                }
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    // 返回 {批次数, 纳秒}
+    private static long[] direct(VecEnv env, int[] actions, Rng rng, long minNanos) {
+        long batches = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            randomize(actions, rng);
+            env.step(actions);
+            batches++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < minNanos);
+        return new long[]{batches, elapsed};
+    }
+
+    private static long[] mmap(EnvClient client, int[] actions, Rng rng, long minNanos) throws IOException {
+        long batches = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            randomize(actions, rng);
+            client.step(actions);
+            batches++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < minNanos);
+        return new long[]{batches, elapsed};
+    }
+
+    private static void randomize(int[] actions, Rng rng) {
+        for (int i = 0; i < actions.length; i++) actions[i] = (int) (rng.nextDouble() * 32);
+    }
+
+    private static void print(String transport, int envs, int threads, long[] result) {
+        double seconds = result[1] / 1e9;
+        System.out.printf(Locale.ROOT, "%s,%d,%d,%d,%.0f,%.1f%n", transport, envs, threads, result[0],
+                result[0] * envs / seconds, result[1] / 1e3 / result[0]);
+    }
+
+    // 多线程与单线程从相同种子、相同动作出发，每步结果逐位相同
+    private static void check(GameConfig config, int envs, long seed, int threads) {
+        if (threads <= 1) return;
+        VecEnv a = new VecEnv(config, envs, seed, 1);
+        VecEnv b = new VecEnv(config, envs, seed, threads);
+        a.maxTicks = b.maxTicks = 200; // 让截断与重开也被检查到
+        a.reset();
+        b.reset();
+        int[] actions = new int[envs];
+        Rng rng = new Rng(seed);
+        for (int s = 0; s < CHECK_STEPS; s++) {
+            randomize(actions, rng);
+            a.step(actions);
+            b.step(actions);
+            for (int i = 0; i < a.obs.length; i++) {
+                if (Float.floatToRawIntBits(a.obs[i]) != Float.floatToRawIntBits(b.obs[i])) {
+                    throw new IllegalStateException(threads + " threads diverged at step " + s + ", obs " + i);
+                }
+            }
+            for (int i = 0; i < envs; i++) {
+                if (a.rewards[i] != b.rewards[i] || a.dones[i] != b.dones[i]) {
+                    throw new IllegalStateException(threads + " threads diverged at step " + s + ", env " + i);
+                }
+            }
+        }
+    }
+}
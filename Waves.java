@@ -0,0 +1,62 @@
+import java.util.Arrays;
+
+// 数据驱动的定时规则：每条规则表示“从本局第 start 帧起，每 every 帧触发一次 kind 事件”（every 为 0 时只触发一次）
+// 帧号从 1 开始，即本帧加分之后的分数；规则表编译成 TimingWheel 中的事件，World 每帧只处理到期的事件
+// 新增玩法规则只需在表里加一行，不会增加每帧的固定开销
+public class Waves {
+
+    // 事件类型，数值即同一帧内的处理顺序（与 World.update() 的阶段对应）
+    static final int SPAWN_WAVE = 0; // 障碍物补满到上限
+    static final int ENEMY_FIRE = 1; // arg 个障碍物向玩家开火
+    static final int SHIELD_ON = 2; // 开启护盾
+    static final int SHIELD_OFF = 3; // 护盾到时关闭（不来自规则表，由 SHIELD_ON 安排）
+    static final int VOLLEY = 4; // 齐射：arg 个障碍物开火，在本帧加分之后
+
+    static final class Rule {
+        final int kind;
+        final long start;
+        final long every;
+        final int arg;
+
+        Rule(int kind, long start, long every, int arg) {
+            this.kind = kind;
+            this.start = start;
+            this.every = every;
+            this.arg = arg;
+        }
+    }
+
+    // 默认玩法，各阈值取自配置
+    static Rule[] standard(GameConfig c) {
+        Rule[] rules = {
+                // 分数超过 2000 及其后每 500 分补满障碍物（判断发生在加分之前，所以是下一帧）
+                new Rule(SPAWN_WAVE, c.waveScore + 1L, c.waveStep, 0),
+                // 每 500 帧有 2 个障碍物开火
+                new Rule(ENEMY_FIRE, Math.max(1, c.enemyFireInterval), Math.max(1, c.enemyFireInterval), 2),
+                // 每 500 分开启一次护盾
+                new Rule(SHIELD_ON, c.protectionScore, c.protectionScore, 0),
+                // 15000 分后每 400 帧有 4 个障碍物向玩家发射子弹
+                new Rule(VOLLEY, (long) c.volleyScore + c.volleyInterval, Math.max(1, c.volleyInterval), 4),
+        };
+        int n = 0;
+        for (Rule r : rules) {
+            if (r.start > 0) rules[n++] = r; // 阈值为 0 或负数的规则视为关闭
+        }
+        return Arrays.copyOf(rules, n);
+    }
+
+    // 规则在 after 帧之后的第一次触发，没有时返回 -1
+    static long next(Rule r, long after) {
+        if (r.start > after) return r.start;
+        if (r.every <= 0) return -1;
+        return r.start + ((after - r.start) / r.every + 1) * r.every;
+    }
+
+    // 安排每条规则在 tick 帧之后的第一次触发，事件的 payload 为规则下标
+    static void compile(Rule[] rules, TimingWheel wheel, long tick) {
+        for (int i = 0; i < rules.length; i++) {
+            long at = next(rules[i], tick);
+            if (at > 0) wheel.schedule(rules[i].kind, i, at);
+        }
+    }
+}
@@ -0,0 +1,831 @@
+// 游戏世界：保存全部状态与每帧逻辑，不依赖 Swing，可在无显示环境下运行
+public class World {
+
+    static final int PLAYER_RADIUS = 15; // 玩家角色半径
+    static final int OBSTACLE_WIDTH = 30; // 障碍物宽度
+    static final int OBSTACLE_HEIGHT = 20; // 障碍物高度
+    static final int PLAYER_SPEED = 5; // 玩家移动速度（每帧像素）
+    private static final float DIAGONAL_SPEED = (float) (PLAYER_SPEED / Math.sqrt(2));
+    static final int BULLET_RADIUS = 6;
+    static final int BULLET_SPEED = 12;
+    static final int ENEMY_BULLET_RADIUS = 6;
+    static final int ENEMY_BULLET_SPEED = 8;
+
+    static final int DEFAULT_WIDTH = 800;
+    static final int DEFAULT_HEIGHT = 600;
+
+    // step() 的输入位：方向位表示本帧按住的方向键，FIRE 表示本帧开火
+    static final int INPUT_LEFT = 1;
+    static final int INPUT_RIGHT = 1 << 1;
+    static final int INPUT_UP = 1 << 2;
+    static final int INPUT_DOWN = 1 << 3;
+    static final int INPUT_FIRE = 1 << 4;
+    static final int INPUT_QUIT = 1 << 5; // 结束本局
+    static final int INPUT_RESTART = 1 << 6; // 游戏结束后重新开始
+
+    final GameConfig config;
+
+    // 本局的随机数发生器，所有随机性都从这里来，相同种子 + 相同输入得到相同结果
+    final long seed;
+    final Rng rng;
+
+    // 场地尺寸，由外部（窗口大小或无头配置）设置
+    int width;
+    int height;
+
+    int highScore = 0;
+
+    // 所有玩家槽位；单人模式只有 players[0]，多人模式下所有玩家共享障碍物、分数和受击次数
+    final Player[] players;
+    final Player player; // players[0]
+    private final int[] singleInput = new int[1];
+
+    // 障碍物、玩家子弹、敌方子弹各用一个实体池
+    // 障碍物的 hits 记录被击中次数；子弹的 vx/vy 为单位方向
+    final EntityPool obstacles;
+    int obstacleCount; // 当前波次允许的障碍物数量
+
+    final EntityPool playerBullets;
+    final EntityPool enemyBullets;
+
+    // 障碍物的均匀网格，以左上角为锚点，每帧障碍物移动后重建
+    final SpatialGrid obstacleGrid;
+    private final int[] candidates; // 网格查询结果缓冲
+
+    // 可选的分阶段计时，为 null 时不计时
+    Profiler profiler;
+
+    // 只在每帧终点位置判断碰撞的旧做法，重放旧版本回放时使用；默认按整段位移做连续检测
+    boolean legacyCollision = false;
+    // 本帧障碍物的最大单轴位移，连续检测时用来放大网格查询范围
+    private float obstacleStep;
+
+    // 限速、积分与边界反弹的内核，向量版与标量版结果逐位相同
+    Kinematics kinematics = Kinematics.DEFAULT;
+
+    // 多核更新子弹，配置的 tickThreads 大于 1 时启用；结果与顺序更新相同
+    final ParallelTick parallel;
+
+    private static final int MAX_TARGETS = 3;
+    private final Targeting targeting = new Targeting(MAX_TARGETS);
+
+    int playerHitCount = 0;
+
+    boolean gameOver = false;
+    int score = 0; // 每帧加 1，同时也是本局的帧号
+
+    boolean protectionOn = false;
+    int protectionEnds = 0; // 护盾在这一帧结束时关闭
+
+    long shotsFired = 0; // 累计发射的玩家子弹数，重开时不清零，供遥测统计
+
+    // 波次、开火、护盾等定时规则编译成时间轮上的事件，时间轴就是 score
+    final Waves.Rule[] rules;
+    final TimingWheel events;
+
+    public World() {
+        this(new GameConfig());
+    }
+
+    public World(GameConfig config) {
+        this(config, config.seed != 0 ? config.seed : System.nanoTime());
+    }
+
+    public World(GameConfig config, long seed) {
+        this.config = config;
+        this.seed = seed;
+        this.rng = new Rng(seed);
+        this.width = config.width;
+        this.height = config.height;
+        players = new Player[Math.max(1, config.players)];
+        for (int i = 0; i < players.length; i++) {
+            players[i] = new Player();
+        }
+        player = players[0];
+
+        rules = Waves.standard(config);
+        events = new TimingWheel(rules.length + 4);
+
+        obstacles = new EntityPool(config.maxObstacles);
+        playerBullets = new EntityPool(config.maxPlayerBullets);
+        enemyBullets = new EntityPool(config.maxEnemyBullets);
+        obstacleGrid = new SpatialGrid(config.maxObstacles);
+        candidates = new int[config.maxObstacles];
+        parallel = config.tickThreads > 1 ? new ParallelTick(config.tickThreads, config.maxObstacles) : null;
+
+        // 初始化障碍物
+        obstacleCount = config.initObstacles;
+        spawnObstacles(obstacleCount);
+        reschedule();
+    }
+
+    public void setSize(int width, int height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    // 应用一帧输入并推进一帧；游戏结束后只处理输入不再推进
+    public void step(int input) {
+        singleInput[0] = input;
+        step(singleInput);
+    }
+
+    // 多人版本：inputs[i] 是玩家 i 本帧的输入，未加入的槽位忽略
+    public void step(int[] inputs) {
+        for (int i = 0; i < players.length; i++) {
+            if (players[i].joined && (inputs[i] & INPUT_QUIT) != 0) {
+                players[i].active = false;
+                if (activePlayers() == 0) gameOver = true;
+            }
+        }
+        for (int i = 0; i < players.length; i++) {
+            if (players[i].joined && (inputs[i] & INPUT_RESTART) != 0 && gameOver) {
+                reset();
+                break;
+            }
+        }
+        savePositions();
+
+        for (int i = 0; i < players.length; i++) {
+            Player p = players[i];
+            if (!inPlay(p)) continue;
+            move(p, inputs[i], width, height);
+            if ((inputs[i] & INPUT_FIRE) != 0) fire(p);
+        }
+
+        if (!gameOver) {
+            update();
+        }
+    }
+
+    // 仍在场上的玩家：存活，或者本局已结束（结束后仍可移动）
+    private boolean inPlay(Player p) {
+        return p.joined && (p.active || gameOver);
+    }
+
+    int activePlayers() {
+        int n = 0;
+        for (Player p : players) {
+            if (p.joined && p.active) n++;
+        }
+        return n;
+    }
+
+    // 玩家 i 加入：本局进行中时直接在出生点参战
+    public void join(int i) {
+        Player p = players[i];
+        p.joined = true;
+        p.active = !gameOver;
+        spawn(p);
+    }
+
+    // 玩家 i 离开；没有存活玩家时本局结束
+    public void leave(int i) {
+        players[i].joined = false;
+        players[i].active = false;
+        if (activePlayers() == 0) gameOver = true;
+    }
+
+    private static void spawn(Player p) {
+        p.x = p.px = 400;
+        p.y = p.py = 300;
+    }
+
+    // 记录上一帧位置，渲染时在两帧之间插值
+    void savePositions() {
+        for (Player p : players) {
+            p.px = p.x;
+            p.py = p.y;
+        }
+        obstacles.savePositions();
+        playerBullets.savePositions();
+        enemyBullets.savePositions();
+    }
+
+    // 按住方向键时以固定速度移动，相反方向抵消，斜向移动速度不变；客户端预测也用这个方法
+    static void move(Player p, int input, int width, int height) {
+        int dx = 0;
+        int dy = 0;
+        if ((input & INPUT_LEFT) != 0) dx--;
+        if ((input & INPUT_RIGHT) != 0) dx++;
+        if ((input & INPUT_UP) != 0) dy--;
+        if ((input & INPUT_DOWN) != 0) dy++;
+        if (dx != 0 || dy != 0) {
+            float speed = (dx != 0 && dy != 0) ? DIAGONAL_SPEED : PLAYER_SPEED;
+            p.x += dx * speed;
+            p.y += dy * speed;
+            clamp(p, width, height);
+        }
+    }
+
+    // 确保玩家角色不出界
+    static void clamp(Player p, int width, int height) {
+        if (p.x < PLAYER_RADIUS) p.x = PLAYER_RADIUS;
+        if (p.x > width - PLAYER_RADIUS) p.x = width - PLAYER_RADIUS;
+        if (p.y < PLAYER_RADIUS) p.y = PLAYER_RADIUS;
+        if (p.y > height - PLAYER_RADIUS) p.y = height - PLAYER_RADIUS;
+    }
+
+    public void fire() {
+        fire(player);
+    }
+
+    // 从玩家 p 的位置向最近的障碍物开火
+    void fire(Player player) {
+        if (score >= config.ceaseFireScore) return; // 分数超过10000时不允许发射
+
+        // 没有可用子弹槽
+        if (playerBullets.isFull()) return;
+
+        // 选出最近的障碍物
+        int bulletCount = (score >= config.tripleShotScore) ? 3 : 1;
+        int count = targeting.select(obstacles, player.x, player.y, bulletCount);
+        for (int t = 0; t < count; t++) {
+            if (!targeting.aim(obstacles, targeting.targets[t], player.x, player.y, bulletSpeed(), config.leadTargeting)) {
+                continue;
+            }
+            int b = playerBullets.acquire();
+            if (b < 0) break;
+            playerBullets.place(b, player.x, player.y);
+            playerBullets.vx[b] = targeting.dirX;
+            playerBullets.vy[b] = targeting.dirY;
+            shotsFired++;
+        }
+    }
+
+    int bulletSpeed() {
+        return (score >= config.tripleShotScore) ? (BULLET_SPEED * 2) : BULLET_SPEED;
+    }
+
+    public void reset() {
+        for (Player p : players) {
+            spawn(p);
+            p.active = p.joined;
+        }
+
+        obstacles.clear();
+        obstacleCount = config.initObstacles;
+        spawnObstacles(obstacleCount);
+
+        gameOver = false;
+        score = 0;
+        protectionOn = false;
+        protectionEnds = 0;
+
+        playerBullets.clear();
+        enemyBullets.clear();
+        playerHitCount = 0;
+        reschedule();
+    }
+
+    // 把另一个同配置世界的全部状态复制过来（批量数组复制，不分配内存），用于搜索时在草稿世界里试走
+    // 网格和瞄准缓冲每帧重建，不需要复制；profiler 保持不变
+    public void copyFrom(World other) {
+        if (other.players.length != players.length) throw new IllegalArgumentException("player slots differ");
+        width = other.width;
+        height = other.height;
+        highScore = other.highScore;
+        rng.s0 = other.rng.s0;
+        rng.s1 = other.rng.s1;
+        for (int i = 0; i < players.length; i++) {
+            Player p = players[i];
+            Player o = other.players[i];
+            p.x = o.x;
+            p.y = o.y;
+            p.px = o.px;
+            p.py = o.py;
+            p.active = o.active;
+            p.joined = o.joined;
+        }
+        obstacles.copyFrom(other.obstacles);
+        obstacleCount = other.obstacleCount;
+        playerBullets.copyFrom(other.playerBullets);
+        enemyBullets.copyFrom(other.enemyBullets);
+        playerHitCount = other.playerHitCount;
+        gameOver = other.gameOver;
+        score = other.score;
+        protectionOn = other.protectionOn;
+        protectionEnds = other.protectionEnds;
+        shotsFired = other.shotsFired;
+        events.copyFrom(other.events);
+        legacyCollision = other.legacyCollision;
+    }
+
+    // 按当前分数和护盾状态重新安排所有定时事件；读档或直接改写状态后调用
+    void reschedule() {
+        events.clear(score);
+        Waves.compile(rules, events, score);
+        if (protectionOn && protectionEnds > score) {
+            events.schedule(Waves.SHIELD_OFF, -1, protectionEnds);
+        }
+    }
+
+    // 生成 n 个新障碍物（池满时提前停止）
+    private void spawnObstacles(int n) {
+        for (int k = 0; k < n; k++) {
+            int i = obstacles.acquire();
+            if (i < 0) break;
+            initObstacle(i);
+            initObstacleSpeed(i);
+        }
+    }
+
+    private void initObstacle(int i) {
+        obstacles.place(i, (int) (rng.nextDouble() * Math.max(width - 100, 0) + 50),
+                (int) (rng.nextDouble() * Math.max(height - 100, 0) + 50));
+    }
+
+    private void initObstacleSpeed(int i) {
+        obstacles.vx[i] = ((rng.nextDouble() < 0.5) ? -1 : 1) * (int) (rng.nextDouble() * 3 + 1);
+        obstacles.vy[i] = ((rng.nextDouble() < 0.5) ? -1 : 1) * (int) (rng.nextDouble() * 3 + 1);
+    }
+
+    void update() {
+        long t = profiler != null ? System.nanoTime() : 0;
+
+        // 取出本帧（加分之后的分数）到期的定时事件，各阶段按类型处理
+        events.advance(score + 1);
+
+        // 新增逻辑：障碍物数量小于2时补充到初始数量
+        if (obstacles.size < 2 && obstacleCount < config.initObstacles) {
+            spawnObstacles(config.initObstacles - obstacleCount);
+            obstacleCount = config.initObstacles;
+        }
+
+        runEvents(Waves.SPAWN_WAVE);
+
+        t = lap(Profiler.SPAWN, t);
+
+        moveObstacles();
+        t = lap(Profiler.MOVE, t);
+
+        // 障碍物移动完毕后重建网格，供本帧的碰撞查询使用
+        obstacleGrid.rebuild(obstacles, width, height);
+        t = lap(Profiler.GRID, t);
+
+        // 检查碰撞，有护盾时不Game Over
+        // 撞上障碍物的玩家出局，全部出局时游戏结束
+        if (!protectionOn) {
+            for (Player p : players) {
+                if (p.joined && p.active && playerHitsObstacle(p)) {
+                    p.active = false;
+                    if (activePlayers() == 0) gameOver = true; // 游戏结束
+                }
+            }
+        }
+        t = lap(Profiler.PLAYER_HIT, t);
+
+        updatePlayerBullets();
+
+        // 玩家子弹移动后，障碍物全部被击毁时补满
+        if (obstacles.size == 0) {
+            obstacleCount = config.maxObstacles;
+            spawnObstacles(obstacleCount);
+        }
+        t = lap(Profiler.PLAYER_BULLETS, t);
+
+        runEvents(Waves.ENEMY_FIRE);
+
+        t = lap(Profiler.ENEMY_FIRE, t);
+
+        updateEnemyBullets();
+        lap(Profiler.ENEMY_BULLETS, t);
+
+        // 增加分数
+        score++;
+        if (score > highScore) {
+            highScore = score; // 更新最高分
+        }
+
+        runEvents(Waves.SHIELD_ON);
+        runEvents(Waves.SHIELD_OFF);
+        runEvents(Waves.VOLLEY);
+    }
+
+    // 处理本帧到期的某一类事件；来自规则表的周期事件处理后安排下一次
+    private void runEvents(int kind) {
+        for (int k = 0; k < events.dueCount; k++) {
+            if (events.dueKind[k] != kind) continue;
+            int rule = events.duePayload[k];
+            Waves.Rule r = rule >= 0 ? rules[rule] : null;
+            long tick = events.now();
+            switch (kind) {
+                case Waves.SPAWN_WAVE:
+                    if (obstacleCount < config.maxObstacles) {
+                        spawnObstacles(config.maxObstacles - obstacleCount);
+                        obstacleCount = config.maxObstacles;
+                    }
+                    break;
+                case Waves.ENEMY_FIRE:
+                case Waves.VOLLEY:
+                    fireEnemyBullets(r.arg);
+                    break;
+                case Waves.SHIELD_ON:
+                    // 护盾持续到本帧起第 protectionFrames 帧之前；已有护盾时重新计时
+                    protectionEnds = (int) tick + config.protectionFrames - 1;
+                    protectionOn = protectionEnds > tick;
+                    if (protectionOn) events.schedule(Waves.SHIELD_OFF, -1, protectionEnds);
+                    break;
+                case Waves.SHIELD_OFF:
+                    // 护盾被重新计时后，旧的关闭事件作废
+                    if (protectionOn && protectionEnds <= tick) protectionOn = false;
+                    break;
+            }
+            if (r != null) {
+                long at = Waves.next(r, tick);
+                if (at > 0) events.schedule(r.kind, rule, at);
+            }
+        }
+    }
+
+    private long lap(int phase, long start) {
+        return profiler != null ? profiler.lap(phase, start) : 0;
+    }
+
+    // 限速、随机变向、移动并在边界反弹
+    void moveObstacles() {
+        EntityPool obs = obstacles;
+
+        // 在障碍物移动前，动态调整速度
+        int speedUp = 1 + score / config.speedUpScore; // 每1000分提升一次
+        float maxSpeed = speedUp * 3;
+        // 限制最大速度
+        kinematics.clampSpeed(obs, maxSpeed);
+
+        // 偶尔让障碍物随机变向
+        if (rng.nextDouble() * 1000 < score / 100) { // 分数越高概率越大
+            for (int k = 0; k < obs.size; k++) {
+                if (rng.nextDouble() * 10 < 1) {
+                    initObstacleSpeed(obs.live[k]);
+                }
+            }
+        }
+
+        // 更新障碍物位置，碰到边界时反弹
+        obstacleStep = kinematics.moveAndBounce(obs, OBSTACLE_WIDTH, OBSTACLE_HEIGHT, width, height);
+    }
+
+    // 只检查玩家附近格子里的障碍物
+    // 连续检测：在障碍物参照系里，玩家圆心从上一帧位置移到当前位置，扫过的线段碰到障碍物外扩半径的圆角矩形即为相撞
+    boolean playerHitsObstacle(Player player) {
+        float reach = legacyCollision ? 0 : obstacleStep + PLAYER_SPEED;
+        int n = obstacleGrid.query(
+                Math.min(player.x, player.px) - PLAYER_RADIUS - OBSTACLE_WIDTH - reach,
+                Math.min(player.y, player.py) - PLAYER_RADIUS - OBSTACLE_HEIGHT - reach,
+                Math.max(player.x, player.px) + PLAYER_RADIUS + reach,
+                Math.max(player.y, player.py) + PLAYER_RADIUS + reach, candidates);
+        EntityPool obs = obstacles;
+        for (int c = 0; c < n; c++) {
+            int i = candidates[c];
+            if (legacyCollision) {
+                if (checkCollision(player, obs.x[i], obs.y[i])) return true;
+                continue;
+            }
+            if (Sweep.roundedBox(player.px - obs.px[i], player.py - obs.py[i], player.x - obs.x[i], player.y - obs.y[i],
+                    0, 0, OBSTACLE_WIDTH, OBSTACLE_HEIGHT, PLAYER_RADIUS) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // 移动玩家子弹，命中障碍物时累计击中次数，出界回收
+    // 连续检测：子弹这一帧扫过的线段与各障碍物外扩子弹半径的矩形求交，取最早碰到的那个，
+    // 所以高速子弹不会穿过障碍物，一帧内越过多个障碍物时只命中最先碰到的
+    void updatePlayerBullets() {
+        if (parallel != null && !legacyCollision && parallel.worthwhile(playerBullets.size)) {
+            updatePlayerBulletsParallel();
+            return;
+        }
+        int bulletSpeed = bulletSpeed();
+        EntityPool obs = obstacles;
+        EntityPool pb = playerBullets;
+        // 先整体移动，再逐颗判断命中与出界
+        kinematics.advance(pb, bulletSpeed);
+        // 倒序遍历，回收当前子弹是安全的
+        for (int n = pb.size - 1; n >= 0; n--) {
+            int b = pb.live[n];
+
+            int i = legacyCollision ? -1 : firstObstacleHit(pb.px[b], pb.py[b], pb.x[b], pb.y[b], candidates);
+
+            // 出界
+            if (i < 0 && outside(pb.x[b], pb.y[b])) {
+                pb.release(b);
+                continue;
+            }
+
+            if (legacyCollision) {
+                i = obstacleAt(pb.x[b], pb.y[b]);
+            }
+            if (i >= 0) {
+                // 命中
+                pb.release(b);
+                if (++obs.hits[i] >= 2) {
+                    obs.release(i);
+                }
+            }
+        }
+    }
+
+    // 并行版：各段移动子弹，并对本帧开始时存活的障碍物求最早命中，只记录命中或出界的子弹
+    // 合并时按顺序版的倒序依次处理；若记录的障碍物已被先处理的子弹击毁，对这颗子弹重新查找，
+    // 否则它在剩余障碍物中仍是最早命中的，结果与顺序版相同
+    private void updatePlayerBulletsParallel() {
+        EntityPool obs = obstacles;
+        EntityPool pb = playerBullets;
+        parallel.run(this, ParallelTick.PLAYER_BULLETS, pb.size);
+        for (int c = parallel.chunkCount - 1; c >= 0; c--) {
+            ParallelTick.Chunk chunk = parallel.chunks[c];
+            for (int e = chunk.count - 1; e >= 0; e--) {
+                int b = pb.live[chunk.pos[e]]; // 尚未处理的位置不会被回收改动
+                int i = chunk.arg[e];
+                if (i >= 0 && !obs.isLive(i)) {
+                    i = firstObstacleHit(pb.px[b], pb.py[b], pb.x[b], pb.y[b], candidates);
+                }
+                if (i < 0) {
+                    if (outside(pb.x[b], pb.y[b])) pb.release(b);
+                    continue;
+                }
+                pb.release(b);
+                if (++obs.hits[i] >= 2) {
+                    obs.release(i);
+                }
+            }
+        }
+    }
+
+    // 工作线程：处理存活列表的一段玩家子弹，只写这些子弹的坐标和本段的事件缓冲
+    void scanPlayerBullets(ParallelTick.Chunk chunk) {
+        int bulletSpeed = bulletSpeed();
+        EntityPool pb = playerBullets;
+        for (int n = chunk.from; n < chunk.to; n++) {
+            int b = pb.live[n];
+            pb.x[b] += pb.vx[b] * bulletSpeed;
+            pb.y[b] += pb.vy[b] * bulletSpeed;
+            int i = firstObstacleHit(pb.px[b], pb.py[b], pb.x[b], pb.y[b], chunk.candidates);
+            if (i >= 0 || outside(pb.x[b], pb.y[b])) chunk.add(n, i);
+        }
+    }
+
+    private boolean outside(float x, float y) {
+        return x < 0 || x > width || y < 0 || y > height;
+    }
+
+    // 子弹从 (x0, y0) 移到 (x1, y1) 途中最先碰到的存活障碍物，没有时返回 -1；同一时刻碰到多个时取槽位小的
+    // 只读，可以在多个线程里同时调用（各自传入查询缓冲）
+    private int firstObstacleHit(float x0, float y0, float x1, float y1, int[] candidates) {
+        EntityPool obs = obstacles;
+        float reach = obstacleStep;
+        int count = obstacleGrid.query(Math.min(x0, x1) - BULLET_RADIUS - OBSTACLE_WIDTH - reach,
+                Math.min(y0, y1) - BULLET_RADIUS - OBSTACLE_HEIGHT - reach,
+                Math.max(x0, x1) + BULLET_RADIUS + reach, Math.max(y0, y1) + BULLET_RADIUS + reach, candidates);
+        int best = -1;
+        float bestT = 2;
+        for (int c = 0; c < count; c++) {
+            int i = candidates[c];
+            if (!obs.isLive(i)) continue; // 本帧已被击毁
+            // 换到障碍物参照系，障碍物左上角在原点
+            float t = Sweep.box(x0 - obs.px[i], y0 - obs.py[i], x1 - obs.x[i], y1 - obs.y[i],
+                    -BULLET_RADIUS, -BULLET_RADIUS, OBSTACLE_WIDTH + BULLET_RADIUS, OBSTACLE_HEIGHT + BULLET_RADIUS);
+            if (t >= 0 && (t < bestT || (t == bestT && i < best))) {
+                best = i;
+                bestT = t;
+            }
+        }
+        return best;
+    }
+
+    // 旧做法：只看子弹终点是否落在某个障碍物外扩子弹半径的矩形内
+    private int obstacleAt(float bx, float by) {
+        EntityPool obs = obstacles;
+        int count = obstacleGrid.query(bx - BULLET_RADIUS - OBSTACLE_WIDTH, by - BULLET_RADIUS - OBSTACLE_HEIGHT,
+                bx + BULLET_RADIUS, by + BULLET_RADIUS, candidates);
+        float rx = OBSTACLE_WIDTH / 2 + BULLET_RADIUS;
+        float ry = OBSTACLE_HEIGHT / 2 + BULLET_RADIUS;
+        for (int c = 0; c < count; c++) {
+            int i = candidates[c];
+            if (!obs.isLive(i)) continue; // 本帧已被击毁
+            float dx = bx - (obs.x[i] + OBSTACLE_WIDTH / 2);
+            float dy = by - (obs.y[i] + OBSTACLE_HEIGHT / 2);
+            if (Math.abs(dx) <= rx && Math.abs(dy) <= ry) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // 移动敌方子弹，出界回收，击中玩家时累计受击次数
+    void updateEnemyBullets() {
+        if (parallel != null && !legacyCollision && parallel.worthwhile(enemyBullets.size)) {
+            updateEnemyBulletsParallel();
+            return;
+        }
+        EntityPool eb = enemyBullets;
+        kinematics.advance(eb, ENEMY_BULLET_SPEED);
+        // 倒序遍历
+        for (int n = eb.size - 1; n >= 0; n--) {
+            int i = eb.live[n];
+
+            boolean hit = !legacyCollision && sweepHitsPlayer(eb.px[i], eb.py[i], eb.x[i], eb.y[i]);
+
+            // 出界则消失
+            if (!hit && outside(eb.x[i], eb.y[i])) {
+                eb.release(i);
+                continue;
+            }
+
+            // 击中玩家，受击次数全队共用
+            if (hit || (legacyCollision && hitsPlayer(eb.x[i], eb.y[i]))) {
+                eb.release(i);
+                if (countPlayerHit(n)) break;
+            }
+        }
+    }
+
+    // 并行版：各段移动子弹并判断是否击中玩家（本阶段玩家不动，判断互不影响），只记录击中或出界的子弹；
+    // 回收和受击计数在合并时按顺序版的倒序进行
+    private void updateEnemyBulletsParallel() {
+        EntityPool eb = enemyBullets;
+        parallel.run(this, ParallelTick.ENEMY_BULLETS, eb.size);
+        for (int c = parallel.chunkCount - 1; c >= 0; c--) {
+            ParallelTick.Chunk chunk = parallel.chunks[c];
+            for (int e = chunk.count - 1; e >= 0; e--) {
+                int n = chunk.pos[e];
+                eb.release(eb.live[n]);
+                if (chunk.arg[e] != 0 && countPlayerHit(n)) return;
+            }
+        }
+    }
+
+    // 工作线程：处理存活列表的一段敌方子弹
+    void scanEnemyBullets(ParallelTick.Chunk chunk) {
+        EntityPool eb = enemyBullets;
+        for (int n = chunk.from; n < chunk.to; n++) {
+            int i = eb.live[n];
+            eb.x[i] += eb.vx[i] * ENEMY_BULLET_SPEED;
+            eb.y[i] += eb.vy[i] * ENEMY_BULLET_SPEED;
+            if (sweepHitsPlayer(eb.px[i], eb.py[i], eb.x[i], eb.y[i])) {
+                chunk.add(n, 1);
+            } else if (outside(eb.x[i], eb.y[i])) {
+                chunk.add(n, 0);
+            }
+        }
+    }
+
+    // 存活列表第 n 位的敌方子弹击中了玩家；达到受击上限时游戏结束并返回 true
+    private boolean countPlayerHit(int n) {
+        if (protectionOn) return false;
+        playerHitCount++;
+        if (playerHitCount < config.hitLimit) return false;
+        gameOver = true;
+        // 游戏在这里结束，尚未检查的子弹（live[0, n)）这一帧不动：退回帧初的位置
+        EntityPool eb = enemyBullets;
+        for (int k = 0; k < n; k++) {
+            int j = eb.live[k];
+            eb.x[j] = eb.px[j];
+            eb.y[j] = eb.py[j];
+        }
+        return true;
+    }
+
+    // 连续检测：在玩家参照系里，子弹这一帧扫过的线段是否碰到玩家的圆
+    private boolean sweepHitsPlayer(float x0, float y0, float x1, float y1) {
+        for (Player p : players) {
+            if (!inPlay(p)) continue;
+            if (Sweep.circle(x0 - p.px, y0 - p.py, x1 - p.x, y1 - p.y, 0, 0, PLAYER_RADIUS) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hitsPlayer(float x, float y) {
+        for (Player p : players) {
+            if (!inPlay(p)) continue;
+            float distX = x - p.x;
+            float distY = y - p.y;
+            if (distX * distX + distY * distY <= PLAYER_RADIUS * PLAYER_RADIUS) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // 前 count 个存活障碍物各向最近的玩家发射一颗子弹
+    private void fireEnemyBullets(int count) {
+        EntityPool obs = obstacles;
+        EntityPool eb = enemyBullets;
+        for (int k = 0; k < obs.size && k < count; k++) {
+            int i = obs.live[k];
+            float ox = obs.x[i] + OBSTACLE_WIDTH / 2;
+            float oy = obs.y[i] + OBSTACLE_HEIGHT / 2;
+            Player target = nearestPlayer(ox, oy);
+            if (target == null) break;
+            double vx = target.x - ox;
+            double vy = target.y - oy;
+            double len = Math.sqrt(vx * vx + vy * vy);
+            if (len <= 0.1) continue;
+            int j = eb.acquire();
+            if (j < 0) break; // 子弹池已满
+            eb.place(j, ox, oy);
+            eb.vx[j] = (float) (vx / len);
+            eb.vy[j] = (float) (vy / len);
+        }
+    }
+
+    // 离 (x, y) 最近的在场玩家，距离相同时取编号小的
+    private Player nearestPlayer(float x, float y) {
+        Player best = null;
+        float bestDist = Float.MAX_VALUE;
+        for (Player p : players) {
+            if (!inPlay(p)) continue;
+            float dx = p.x - x;
+            float dy = p.y - y;
+            float dist = dx * dx + dy * dy;
+            if (dist < bestDist) {
+                best = p;
+                bestDist = dist;
+            }
+        }
+        return best;
+    }
+
+    private static boolean checkCollision(Player player, float obsX, float obsY) {
+        float distX = Math.abs(player.x - (obsX + OBSTACLE_WIDTH / 2));
+        float distY = Math.abs(player.y - (obsY + OBSTACLE_HEIGHT / 2));
+
+        if (distX > (OBSTACLE_WIDTH / 2 + PLAYER_RADIUS) ||
+                distY > (OBSTACLE_HEIGHT / 2 + PLAYER_RADIUS)) {
+            return false; // 没有碰撞
+        }
+
+        if (distX <= (OBSTACLE_WIDTH / 2) || distY <= (OBSTACLE_HEIGHT / 2)) {
+            return true; // 碰撞
+        }
+
+        float dx = distX - OBSTACLE_WIDTH / 2;
+        float dy = distY - OBSTACLE_HEIGHT / 2;
+        return (dx * dx + dy * dy <= (PLAYER_RADIUS * PLAYER_RADIUS));
+    }
+
+    // 整个世界状态的摘要，用于校验回放与并行模式的结果是否逐位一致
+    public long checksum() {
+        long h = 0xCBF29CE484222325L;
+        h = mix(h, width);
+        h = mix(h, height);
+        h = mix(h, score);
+        h = mix(h, obstacleCount);
+        h = mix(h, playerHitCount);
+        // 以下三项是改用时间轮之前的开火计数、上次分数和护盾剩余帧数，按等价值计入，旧回放的摘要保持不变
+        h = mix(h, score % Math.max(1, config.enemyFireInterval));
+        h = mix(h, score);
+        h = mix(h, protectionOn ? protectionEnds - score : 0);
+        h = mix(h, (protectionOn ? 1 : 0) | (gameOver ? 2 : 0));
+        h = mix(h, Float.floatToIntBits(player.x));
+        h = mix(h, Float.floatToIntBits(player.y));
+        h = mix(h, rng.s0);
+        h = mix(h, rng.s1);
+        h = mix(h, obstacles);
+        h = mix(h, playerBullets);
+        h = mix(h, enemyBullets);
+        // 多人模式的其他玩家放在最后，单人模式的摘要与以前相同
+        for (int i = 1; i < players.length; i++) {
+            Player p = players[i];
+            h = mix(h, Float.floatToIntBits(p.x));
+            h = mix(h, Float.floatToIntBits(p.y));
+            h = mix(h, (p.joined ? 1 : 0) | (p.active ? 2 : 0));
+        }
+        return h;
+    }
+
+    private static long mix(long h, EntityPool pool) {
+        h = mix(h, pool.size);
+        for (int k = 0; k < pool.size; k++) {
+            int i = pool.live[k];
+            h = mix(h, i);
+            h = mix(h, Float.floatToIntBits(pool.x[i]));
+            h = mix(h, Float.floatToIntBits(pool.y[i]));
+            h = mix(h, Float.floatToIntBits(pool.vx[i]));
+            h = mix(h, Float.floatToIntBits(pool.vy[i]));
+            h = mix(h, pool.hits[i]);
+        }
+        return h;
+    }
+
+    private static long mix(long h, long v) {
+        return (h ^ v) * 0x100000001B3L;
+    }
+
+    // 辅助结构体
+    static class Player {
+        float x, y;
+        float px, py; // 上一帧位置
+        boolean active; // 存活
+        boolean joined; // 槽位有人
+
+        Player() {
+            this.active = true;
+            this.joined = true;
+        }
+    }
+}
@@ -0,0 +1,237 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+// 世界存档：按固定二进制布局保存全部状态（玩家、所有实体槽位、计数器、随机数状态），可随时恢复继续运行
+// 布局只取决于配置中的池容量，小端序；内存中可用 allocate() 的缓冲区做回退或分叉，文件通过内存映射读写
+//
+// 布局：magic, version, 总字节数
+//       配置：maxObstacles, initObstacles, maxPlayerBullets, maxEnemyBullets, leadTargeting, 11 个难度参数, seed
+//       状态：width, height, rng s0/s1, 玩家 x/y/px/py, 标志位, 障碍物数量, 受击次数, 分数, 最高分, 护盾结束帧
+//       三个实体池：见 EntityPool.writeTo()
+//       玩家槽位数，以及 1 号起各玩家的 x/y/px/py 与标志位（0 号玩家在状态段里）
+public class WorldSnapshot {
+
+    static final int MAGIC = 0x5348534E; // "SHSN"
+    static final int VERSION = 3;
+
+    private static final int HEADER_BYTES = 12;
+    private static final int CONFIG_BYTES = 16 * 4 + 8;
+    private static final int STATE_BYTES = 2 * 4 + 2 * 8 + 4 * 4 + 6 * 4;
+
+    private static final int FLAG_GAME_OVER = 1;
+    private static final int FLAG_PROTECTION = 2;
+    private static final int FLAG_PLAYER_ACTIVE = 4;
+    private static final int FLAG_PLAYER_JOINED = 8;
+    private static final int PLAYER_BYTES = 5 * 4;
+
+    // 给定配置下一份存档的字节数
+    public static int size(GameConfig config) {
+        return HEADER_BYTES + CONFIG_BYTES + STATE_BYTES
+                + EntityPool.snapshotBytes(config.maxObstacles)
+                + EntityPool.snapshotBytes(config.maxPlayerBullets)
+                + EntityPool.snapshotBytes(config.maxEnemyBullets)
+                + 4 + (Math.max(1, config.players) - 1) * PLAYER_BYTES;
+    }
+
+    private static int playerFlags(World.Player p) {
+        return (p.active ? FLAG_PLAYER_ACTIVE : 0) | (p.joined ? FLAG_PLAYER_JOINED : 0);
+    }
+
+    private static void setPlayerFlags(World.Player p, int flags) {
+        p.active = (flags & FLAG_PLAYER_ACTIVE) != 0;
+        p.joined = (flags & FLAG_PLAYER_JOINED) != 0;
+    }
+
+    // 分配一块可重复使用的内存存档缓冲区
+    public static ByteBuffer allocate(GameConfig config) {
+        return ByteBuffer.allocate(size(config)).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    // 从 buf 的当前位置写出一份存档，写完后位置在存档末尾；buf 会被设为小端序
+    public static void write(World world, ByteBuffer buf) {
+        GameConfig c = world.config;
+        buf.order(ByteOrder.LITTLE_ENDIAN);
+        buf.putInt(MAGIC);
+        buf.putInt(VERSION);
+        buf.putInt(size(c));
+
+        buf.putInt(c.maxObstacles);
+        buf.putInt(c.initObstacles);
+        buf.putInt(c.maxPlayerBullets);
+        buf.putInt(c.maxEnemyBullets);
+        buf.putInt(c.leadTargeting ? 1 : 0);
+        buf.putInt(c.speedUpScore);
+        buf.putInt(c.waveScore);
+        buf.putInt(c.waveStep);
+        buf.putInt(c.tripleShotScore);
+        buf.putInt(c.ceaseFireScore);
+        buf.putInt(c.volleyScore);
+        buf.putInt(c.volleyInterval);
+        buf.putInt(c.enemyFireInterval);
+        buf.putInt(c.hitLimit);
+        buf.putInt(c.protectionScore);
+        buf.putInt(c.protectionFrames);
+        buf.putLong(world.seed);
+
+        buf.putInt(world.width);
+        buf.putInt(world.height);
+        buf.putLong(world.rng.s0);
+        buf.putLong(world.rng.s1);
+        buf.putFloat(world.player.x);
+        buf.putFloat(world.player.y);
+        buf.putFloat(world.player.px);
+        buf.putFloat(world.player.py);
+        buf.putInt((world.gameOver ? FLAG_GAME_OVER : 0) | (world.protectionOn ? FLAG_PROTECTION : 0)
+                | playerFlags(world.player));
+        buf.putInt(world.obstacleCount);
+        buf.putInt(world.playerHitCount);
+        buf.putInt(world.score);
+        buf.putInt(world.highScore);
+        buf.putInt(world.protectionEnds);
+
+        world.obstacles.writeTo(buf);
+        world.playerBullets.writeTo(buf);
+        world.enemyBullets.writeTo(buf);
+
+        buf.putInt(world.players.length);
+        for (int i = 1; i < world.players.length; i++) {
+            World.Player p = world.players[i];
+            buf.putFloat(p.x);
+            buf.putFloat(p.y);
+            buf.putFloat(p.px);
+            buf.putFloat(p.py);
+            buf.putInt(playerFlags(p));
+        }
+    }
+
+    // 从 buf 的当前位置恢复到 world；池容量必须与存档一致，难度参数以 world 自己的配置为准
+    public static void read(World world, ByteBuffer buf) {
+        GameConfig saved = readConfig(buf);
+        GameConfig c = world.config;
+        if (saved.maxObstacles != c.maxObstacles || saved.maxPlayerBullets != c.maxPlayerBullets
+                || saved.maxEnemyBullets != c.maxEnemyBullets || saved.players != world.players.length) {
+            throw new IllegalArgumentException("snapshot capacities do not match this world");
+        }
+        buf.order(ByteOrder.LITTLE_ENDIAN);
+        buf.position(buf.position() + HEADER_BYTES + CONFIG_BYTES);
+
+        world.width = buf.getInt();
+        world.height = buf.getInt();
+        world.rng.s0 = buf.getLong();
+        world.rng.s1 = buf.getLong();
+        world.player.x = buf.getFloat();
+        world.player.y = buf.getFloat();
+        world.player.px = buf.getFloat();
+        world.player.py = buf.getFloat();
+        int flags = buf.getInt();
+        world.gameOver = (flags & FLAG_GAME_OVER) != 0;
+        world.protectionOn = (flags & FLAG_PROTECTION) != 0;
+        setPlayerFlags(world.player, flags);
+        world.obstacleCount = buf.getInt();
+        world.playerHitCount = buf.getInt();
+        world.score = buf.getInt();
+        world.highScore = buf.getInt();
+        world.protectionEnds = buf.getInt();
+
+        world.obstacles.readFrom(buf);
+        world.playerBullets.readFrom(buf);
+        world.enemyBullets.readFrom(buf);
+
+        buf.getInt(); // 玩家槽位数，已在 readConfig() 中校验
+        for (int i = 1; i < world.players.length; i++) {
+            World.Player p = world.players[i];
+            p.x = buf.getFloat();
+            p.y = buf.getFloat();
+            p.px = buf.getFloat();
+            p.py = buf.getFloat();
+            setPlayerFlags(p, buf.getInt());
+        }
+        // 定时事件不存档，由分数和护盾状态重新推出
+        world.reschedule();
+    }
+
+    // 读出存档头部记录的配置（width/height 取存档时的场地尺寸），不移动 buf 的位置
+    public static GameConfig readConfig(ByteBuffer buf) {
+        ByteBuffer b = buf.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        if (b.remaining() < HEADER_BYTES + CONFIG_BYTES + STATE_BYTES || b.getInt() != MAGIC) {
+            throw new IllegalArgumentException("not a snapshot");
+        }
+        int version = b.getInt();
+        if (version != VERSION) throw new IllegalArgumentException("unsupported snapshot version " + version);
+        int size = b.getInt();
+        if (buf.remaining() < size) throw new IllegalArgumentException("truncated snapshot");
+
+        GameConfig c = new GameConfig();
+        c.maxObstacles = b.getInt();
+        c.initObstacles = b.getInt();
+        c.maxPlayerBullets = b.getInt();
+        c.maxEnemyBullets = b.getInt();
+        c.leadTargeting = b.getInt() != 0;
+        c.speedUpScore = b.getInt();
+        c.waveScore = b.getInt();
+        c.waveStep = b.getInt();
+        c.tripleShotScore = b.getInt();
+        c.ceaseFireScore = b.getInt();
+        c.volleyScore = b.getInt();
+        c.volleyInterval = b.getInt();
+        c.enemyFireInterval = b.getInt();
+        c.hitLimit = b.getInt();
+        c.protectionScore = b.getInt();
+        c.protectionFrames = b.getInt();
+        c.seed = b.getLong();
+        c.width = b.getInt();
+        c.height = b.getInt();
+        b.position(buf.position() + HEADER_BYTES + CONFIG_BYTES + STATE_BYTES
+                + EntityPool.snapshotBytes(c.maxObstacles)
+                + EntityPool.snapshotBytes(c.maxPlayerBullets)
+                + EntityPool.snapshotBytes(c.maxEnemyBullets));
+        c.players = b.getInt();
+        if (c.players < 1 || size != size(c)) throw new IllegalArgumentException("corrupt snapshot header");
+        return c;
+    }
+
+    // 通过内存映射写入同目录的临时文件并落盘，再原子改名覆盖正式文件：写到一半崩溃时原来的存档保持不变
+    public static void save(World world, Path path) throws IOException {
+        int size = size(world.config);
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            write(world, buf);
+            buf.force();
+        }
+        try {
+            Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // 从文件恢复到已有的 world
+    public static void load(World world, Path path) throws IOException {
+        read(world, map(path));
+    }
+
+    // 按存档里的配置新建一个 world 并恢复
+    public static World load(Path path) throws IOException {
+        MappedByteBuffer buf = map(path);
+        GameConfig config = readConfig(buf);
+        World world = new World(config, config.seed);
+        read(world, buf);
+        return world;
+    }
+
+    private static MappedByteBuffer map(Path path) throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            return ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+        }
+    }
+}
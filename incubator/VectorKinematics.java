@@ -0,0 +1,130 @@
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// Kinematics 的向量版：按槽位顺序整段扫描坐标数组，用稠密索引 >= 0 作为存活掩码
+// 空闲槽位用 blend 写回原值（比带掩码的存储快得多），所以它们的内容保持不变
+// 只有存活实体足够密集时才整段扫描，稀疏时沿存活列表走标量版更快
+// 运算与标量版逐项相同：先乘后加（不融合），最大值归约与顺序无关，所以结果逐位相同
+// 单独编译：javac --add-modules jdk.incubator.vector -cp out -d out incubator/VectorKinematics.java
+public class VectorKinematics extends Kinematics {
+
+    private static final VectorSpecies<Float> F = FloatVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> I = IntVector.SPECIES_PREFERRED;
+
+    // 存活数占容量的比例低于 1 / SPARSE 时走标量版
+    private static final int SPARSE = 4;
+    // 池子太小时也走标量版：默认配置下只有几十个实体，向量代码不够热，JIT 编译前反而很慢
+    private static final int MIN_CAPACITY = 256;
+
+    @Override
+    boolean supported() {
+        return F.length() >= 4 && F.length() == I.length();
+    }
+
+    @Override
+    String name() {
+        return "vector" + F.length();
+    }
+
+    private static boolean dense(EntityPool pool) {
+        return pool.capacity >= MIN_CAPACITY && pool.size * SPARSE >= pool.capacity;
+    }
+
+    private static VectorMask<Float> live(EntityPool pool, int i) {
+        return IntVector.fromArray(I, pool.denseIndex, i).compare(VectorOperators.GE, 0).cast(F);
+    }
+
+    @Override
+    void clampSpeed(EntityPool pool, float max) {
+        if (!dense(pool)) {
+            super.clampSpeed(pool, max);
+            return;
+        }
+        int n = pool.capacity;
+        int bound = F.loopBound(n);
+        int i = 0;
+        for (; i < bound; i += F.length()) {
+            VectorMask<Float> m = live(pool, i);
+            FloatVector vx = FloatVector.fromArray(F, pool.vx, i);
+            FloatVector vy = FloatVector.fromArray(F, pool.vy, i);
+            vx.blend(vx.max(-max).min(max), m).intoArray(pool.vx, i);
+            vy.blend(vy.max(-max).min(max), m).intoArray(pool.vy, i);
+        }
+        for (; i < n; i++) {
+            if (!pool.isLive(i)) continue;
+            pool.vx[i] = Math.min(Math.max(pool.vx[i], -max), max);
+            pool.vy[i] = Math.min(Math.max(pool.vy[i], -max), max);
+        }
+    }
+
+    @Override
+    void advance(EntityPool pool, float scale) {
+        if (!dense(pool)) {
+            super.advance(pool, scale);
+            return;
+        }
+        int n = pool.capacity;
+        int bound = F.loopBound(n);
+        int i = 0;
+        for (; i < bound; i += F.length()) {
+            VectorMask<Float> m = live(pool, i);
+            FloatVector vx = FloatVector.fromArray(F, pool.vx, i);
+            FloatVector vy = FloatVector.fromArray(F, pool.vy, i);
+            FloatVector x = FloatVector.fromArray(F, pool.x, i);
+            FloatVector y = FloatVector.fromArray(F, pool.y, i);
+            x.blend(x.add(vx.mul(scale)), m).intoArray(pool.x, i);
+            y.blend(y.add(vy.mul(scale)), m).intoArray(pool.y, i);
+        }
+        for (; i < n; i++) {
+            if (!pool.isLive(i)) continue;
+            pool.x[i] += pool.vx[i] * scale;
+            pool.y[i] += pool.vy[i] * scale;
+        }
+    }
+
+    @Override
+    float moveAndBounce(EntityPool pool, float w, float h, int width, int height) {
+        if (!dense(pool)) {
+            return super.moveAndBounce(pool, w, h, width, height);
+        }
+        int n = pool.capacity;
+        int bound = F.loopBound(n);
+        FloatVector steps = FloatVector.zero(F);
+        int i = 0;
+        for (; i < bound; i += F.length()) {
+            VectorMask<Float> m = live(pool, i);
+            FloatVector vx = FloatVector.fromArray(F, pool.vx, i);
+            FloatVector vy = FloatVector.fromArray(F, pool.vy, i);
+            FloatVector x = FloatVector.fromArray(F, pool.x, i);
+            FloatVector y = FloatVector.fromArray(F, pool.y, i);
+            FloatVector nx = x.add(vx);
+            FloatVector ny = y.add(vy);
+            x.blend(nx, m).intoArray(pool.x, i);
+            y.blend(ny, m).intoArray(pool.y, i);
+            // 各分量取绝对值后求最大，空闲槽位按 0 计；最大值与比较顺序无关
+            steps = steps.max(vx.abs().max(vy.abs()).blend(0, m.not()));
+
+            VectorMask<Float> outX = nx.compare(VectorOperators.LT, 0).or(nx.add(w).compare(VectorOperators.GT, (float) width));
+            VectorMask<Float> outY = ny.compare(VectorOperators.LT, 0).or(ny.add(h).compare(VectorOperators.GT, (float) height));
+            vx.blend(vx.neg(), m.and(outX)).intoArray(pool.vx, i);
+            vy.blend(vy.neg(), m.and(outY)).intoArray(pool.vy, i);
+        }
+        float step = steps.reduceLanes(VectorOperators.MAX);
+        for (; i < n; i++) {
+            if (!pool.isLive(i)) continue;
+            pool.x[i] += pool.vx[i];
+            pool.y[i] += pool.vy[i];
+            step = Math.max(step, Math.max(Math.abs(pool.vx[i]), Math.abs(pool.vy[i])));
+            if (pool.x[i] < 0 || pool.x[i] + w > width) {
+                pool.vx[i] = -pool.vx[i];
+            }
+            if (pool.y[i] < 0 || pool.y[i] + h > height) {
+                pool.vy[i] = -pool.vy[i];
+            }
+        }
+        return step;
+    }
+}